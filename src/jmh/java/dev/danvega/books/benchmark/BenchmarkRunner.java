@@ -0,0 +1,26 @@
+package dev.danvega.books.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation and SQL statement profilers always enabled. Takes the
+ * usual JMH command line, e.g. {@code -Djmh.args="search -f 1 -wi 2 -i 3"}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        var commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(SqlStatementProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(GraphQlBenchmarks.class.getName());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package dev.danvega.books.benchmark;
+
+import dev.danvega.books.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Representative operations run through the GraphQL engine, without HTTP, against a synthetic
+ * catalog. The database comes from the test configuration, a Testcontainers Postgres unless
+ * {@code spring.datasource.url} is passed with {@code -jvmArgsAppend}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GraphQlBenchmarks {
+
+    private static final String BOOKS_WITH_AUTHOR = "{ books { title author { name } } }";
+    private static final String AUTHORS_WITH_BOOKS = "{ authors { name books { title } } }";
+    private static final String SEARCH = """
+            query($text: String) {
+                search(text: $text, limit: 20) { ... on Book { title } ... on Author { name } }
+            }""";
+    private static final String REVIEWS = """
+            query($filter: ReviewFilter) {
+                reviews(filter: $filter) { rating reviewerName book { title } }
+            }""";
+    private static final String ADD_BOOK = """
+            mutation($input: BookInput) {
+                addBook(bookInput: $input) { id }
+            }""";
+
+    @Param("200")
+    public int authors;
+
+    @Param("200")
+    public int maxReviewsPerBook;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private final AtomicLong addedBooks = new AtomicLong();
+
+    @Setup
+    public void start() {
+        // the restarter would otherwise relaunch the context in its own class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(Application.class)
+                .web(WebApplicationType.NONE)
+                .profiles("synthetic")
+                .properties(
+                        "spring.docker.compose.enabled=false",
+                        "spring.jpa.show-sql=false",
+                        "management.tracing.enabled=false",
+                        "logging.level.dev.danvega.books=warn",
+                        "books.synthetic.authors=" + authors,
+                        "books.synthetic.max-reviews-per-book=" + maxReviewsPerBook)
+                .run();
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse booksWithAuthor() {
+        return execute(BOOKS_WITH_AUTHOR, Map.of());
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse authorsWithBooks() {
+        return execute(AUTHORS_WITH_BOOKS, Map.of());
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse search() {
+        return execute(SEARCH, Map.of("text", "graphql cookbook"));
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse reviewsByFilter() {
+        return execute(REVIEWS, Map.of("filter", Map.of("rating", 5, "verified", true)));
+    }
+
+    @Benchmark
+    public ExecutionGraphQlResponse addBook() {
+        long n = addedBooks.incrementAndGet();
+        return execute(ADD_BOOK, Map.of("input", Map.of("title", "Benchmark Book " + n, "authorId", n % authors + 1)));
+    }
+
+    private ExecutionGraphQlResponse execute(String document, Map<String, Object> variables) {
+        var request = new DefaultExecutionGraphQlRequest(document, null, variables, null, "1", null);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        // a failing operation is usually much faster, don't let it pass for an improvement
+        if (response == null || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Operation failed: " + (response != null ? response.getErrors() : null));
+        }
+        return response;
+    }
+}
@@ -0,0 +1,41 @@
+package dev.danvega.books.benchmark;
+
+import dev.danvega.books.graphql.SqlStatementCounter;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports the SQL statements per benchmark operation, next to what {@code -prof gc} reports for
+ * allocations. Use it with {@code -prof dev.danvega.books.benchmark.SqlStatementProfiler}.
+ */
+public class SqlStatementProfiler implements InternalProfiler {
+
+    private long before;
+
+    @Override
+    public String getDescription() {
+        return "SQL statements prepared by Hibernate per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        before = SqlStatementCounter.total();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long statements = SqlStatementCounter.total() - before;
+        long operations = result.getMetadata().getAllOps();
+        double perOperation = operations == 0 ? Double.NaN : (double) statements / operations;
+        return List.of(new ScalarResult("sql.statements.norm", perOperation, "statements/op", AggregationPolicy.AVG));
+    }
+}
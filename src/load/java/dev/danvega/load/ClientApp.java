@@ -0,0 +1,52 @@
+package dev.danvega.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.client.HttpSyncGraphQlClient;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Load driver for a running server, configured under {@code books.load}, for example
+ * {@code --books.load.model=open --books.load.rate=500}. Increase the rate between runs and
+ * compare the summaries to find where latency starts to climb.
+ */
+@Import(RestClientAutoConfiguration.class)
+@EnableConfigurationProperties(LoadProperties.class)
+public class ClientApp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientApp.class);
+    private final LoadProperties properties;
+    private final HttpSyncGraphQlClient client;
+
+    public ClientApp(RestClient.Builder builder, LoadProperties properties) {
+        this.properties = properties;
+        RestClient restClient = builder.baseUrl(properties.url().toString()).build();
+        // documents are loaded from graphql-documents/, which the server also preloads, so only their hash is sent
+        this.client = HttpSyncGraphQlClient.builder(restClient)
+                .interceptor(new PersistedQueryInterceptor())
+                .build();
+    }
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ClientApp.class).web(WebApplicationType.NONE).run(args);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        LoadReport report = new LoadGenerator(client, properties).run();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(properties.summary().toFile(), report);
+
+        LoadReport.OperationReport total = report.total();
+        log.info("{} requests, {} errors, {} dropped, {} req/s, p50 {} ms, p99 {} ms, max {} ms, summary in {}",
+                total.count(), total.errors(), report.dropped(), Math.round(total.throughput()), total.p50(),
+                total.p99(), total.max(), properties.summary().toAbsolutePath());
+    }
+}
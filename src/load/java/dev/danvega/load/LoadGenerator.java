@@ -0,0 +1,171 @@
+package dev.danvega.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.HttpSyncGraphQlClient;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a weighted mix of documents against the server on virtual threads and records the latency
+ * of each operation in an HdrHistogram.
+ * <p>
+ * In the open model requests start on a fixed schedule whether or not earlier ones have finished,
+ * and latency is measured from the scheduled start, so a stalled server shows up in the percentiles
+ * instead of silently lowering the request rate.
+ */
+class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final HttpSyncGraphQlClient client;
+    private final LoadProperties properties;
+    private final List<String> names;
+    private final int[] cumulativeWeights;
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    LoadGenerator(HttpSyncGraphQlClient client, LoadProperties properties) {
+        this.client = client;
+        this.properties = properties;
+        this.names = List.copyOf(properties.mix().keySet());
+        this.cumulativeWeights = new int[names.size()];
+        int total = 0;
+        for (int i = 0; i < names.size(); i++) {
+            total += properties.mix().get(names.get(i));
+            cumulativeWeights[i] = total;
+            stats.put(names.get(i), new OperationStats());
+        }
+    }
+
+    LoadReport run() {
+        long start = System.nanoTime();
+        long recordFrom = start + properties.warmup().toNanos();
+        long end = recordFrom + properties.duration().toNanos();
+        log.info("Running {} model for {} after {} warmup, mix {}", properties.model(), properties.duration(),
+                properties.warmup(), properties.mix());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            switch (properties.model()) {
+                case CLOSED -> runClosed(executor, recordFrom, end);
+                case OPEN -> runOpen(executor, start, recordFrom, end);
+            }
+        }
+        return report(properties.duration().toNanos() / 1e9);
+    }
+
+    private void runClosed(ExecutorService executor, long recordFrom, long end) {
+        for (int i = 0; i < properties.concurrency(); i++) {
+            executor.submit(() -> {
+                while (System.nanoTime() < end) {
+                    execute(pick(), System.nanoTime(), recordFrom);
+                }
+            });
+        }
+    }
+
+    private void runOpen(ExecutorService executor, long start, long recordFrom, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / properties.rate());
+        var inFlight = new Semaphore(properties.maxInFlight());
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                if (scheduled >= recordFrom) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            long intendedStart = scheduled;
+            executor.submit(() -> {
+                try {
+                    execute(pick(), intendedStart, recordFrom);
+                }
+                finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void execute(String name, long startedAt, long recordFrom) {
+        boolean failed;
+        try {
+            ClientGraphQlResponse response = client.documentName(name)
+                    .variables(properties.variables().getOrDefault(name, Map.of()))
+                    .executeSync();
+            failed = !response.isValid() || !response.getErrors().isEmpty();
+        }
+        catch (RuntimeException ex) {
+            log.debug("Request for {} failed", name, ex);
+            failed = true;
+        }
+        if (startedAt >= recordFrom) {
+            stats.get(name).record(System.nanoTime() - startedAt, failed);
+        }
+    }
+
+    private String pick() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return names.get(i);
+            }
+        }
+        throw new IllegalStateException("Weights must be positive: " + properties.mix());
+    }
+
+    private LoadReport report(double seconds) {
+        var total = new OperationStats();
+        Map<String, LoadReport.OperationReport> operations = new LinkedHashMap<>();
+        stats.forEach((name, operation) -> {
+            total.add(operation);
+            operations.put(name, operation.report(seconds));
+        });
+        return new LoadReport(properties.model(), properties.concurrency(), properties.rate(), seconds,
+                dropped.sum(), total.report(seconds), operations);
+    }
+
+    private static class OperationStats {
+
+        // microseconds, auto-resizing so a pathological outlier doesn't get clamped
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos, boolean failed) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        void add(OperationStats other) {
+            latencies.add(other.latencies);
+            errors.add(other.errors.sum());
+        }
+
+        LoadReport.OperationReport report(double seconds) {
+            long count = latencies.getTotalCount();
+            return new LoadReport.OperationReport(count, errors.sum(), count / seconds,
+                    latencies.getMean() / 1000, millis(50), millis(90), millis(99), millis(99.9),
+                    latencies.getMaxValue() / 1000.0);
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
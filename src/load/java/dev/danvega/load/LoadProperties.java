@@ -0,0 +1,43 @@
+package dev.danvega.load;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param url GraphQL endpoint under test
+ * @param model {@code CLOSED} keeps {@code concurrency} requests in flight, {@code OPEN} starts {@code rate} requests per second
+ * @param concurrency number of virtual threads looping over requests in the closed model
+ * @param rate requests per second in the open model
+ * @param maxInFlight requests the open model lets pile up before it drops new ones
+ * @param warmup time before latencies are recorded
+ * @param duration measured time after the warmup
+ * @param mix relative weight of each document in graphql-documents/, by name
+ * @param variables variables sent with each document, by name
+ * @param summary file the JSON summary is written to
+ */
+@ConfigurationProperties("books.load")
+public record LoadProperties(@DefaultValue("http://localhost:8080/graphql") URI url,
+                             @DefaultValue("closed") Model model,
+                             @DefaultValue("16") int concurrency,
+                             @DefaultValue("100") double rate,
+                             @DefaultValue("1000") int maxInFlight,
+                             @DefaultValue("10s") Duration warmup,
+                             @DefaultValue("60s") Duration duration,
+                             Map<String, Integer> mix,
+                             Map<String, Map<String, Object>> variables,
+                             @DefaultValue("load-summary.json") Path summary) {
+
+    public LoadProperties {
+        mix = mix == null || mix.isEmpty() ? Map.of("findBookById", 1) : mix;
+        variables = variables == null ? Map.of() : variables;
+    }
+
+    public enum Model {
+        OPEN, CLOSED
+    }
+}
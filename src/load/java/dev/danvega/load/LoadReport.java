@@ -0,0 +1,26 @@
+package dev.danvega.load;
+
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load run, latencies are in milliseconds.
+ */
+public record LoadReport(LoadProperties.Model model,
+                         int concurrency,
+                         double targetRate,
+                         double durationSeconds,
+                         long dropped,
+                         OperationReport total,
+                         Map<String, OperationReport> operations) {
+
+    public record OperationReport(long count,
+                                  long errors,
+                                  double throughput,
+                                  double mean,
+                                  double p50,
+                                  double p90,
+                                  double p99,
+                                  double p999,
+                                  double max) {
+    }
+}
@@ -0,0 +1,73 @@
+package dev.danvega.load;
+
+import dev.danvega.books.graphql.CaffeinePersistedQueryCache;
+import org.springframework.graphql.client.ClientGraphQlRequest;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.SyncGraphQlClientInterceptor;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client side of automatic persisted queries: sends only the SHA-256 hash of the document and,
+ * if the server doesn't know it yet, repeats the request once with the text so it gets registered.
+ */
+class PersistedQueryInterceptor implements SyncGraphQlClientInterceptor {
+
+    private static final String NOT_FOUND = "PersistedQueryNotFound";
+
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientGraphQlResponse intercept(ClientGraphQlRequest request, Chain chain) {
+        String hash = hashes.computeIfAbsent(request.getDocument(), CaffeinePersistedQueryCache::sha256Hex);
+        ClientGraphQlResponse response = chain.next(new PersistedRequest(request, hash, false));
+        if (response.getErrors().stream().anyMatch(error -> NOT_FOUND.equals(error.getMessage()))) {
+            response = chain.next(new PersistedRequest(request, hash, true));
+        }
+        return response;
+    }
+
+    private record PersistedRequest(ClientGraphQlRequest delegate, String hash, boolean includeDocument) implements ClientGraphQlRequest {
+
+        @Override
+        public String getDocument() {
+            return delegate.getDocument();
+        }
+
+        @Override
+        @Nullable
+        public String getOperationName() {
+            return delegate.getOperationName();
+        }
+
+        @Override
+        public Map<String, Object> getVariables() {
+            return delegate.getVariables();
+        }
+
+        @Override
+        public Map<String, Object> getExtensions() {
+            Map<String, Object> extensions = new LinkedHashMap<>(delegate.getExtensions());
+            extensions.put("persistedQuery", Map.of("version", 1, "sha256Hash", hash));
+            return extensions;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+
+        @Override
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>(delegate.toMap());
+            if (!includeDocument) {
+                map.remove("query");
+            }
+            map.put("extensions", getExtensions());
+            return map;
+        }
+    }
+}
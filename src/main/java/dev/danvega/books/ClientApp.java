@@ -1,53 +0,0 @@
-package dev.danvega.books;
-
-import dev.danvega.books.book.Book;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
-import org.springframework.boot.WebApplicationType;
-import org.springframework.boot.autoconfigure.web.client.RestClientAutoConfiguration;
-import org.springframework.boot.builder.SpringApplicationBuilder;
-import org.springframework.context.annotation.Import;
-import org.springframework.graphql.client.HttpSyncGraphQlClient;
-import org.springframework.web.client.RestClient;
-
-@Import(RestClientAutoConfiguration.class)
-public class ClientApp implements ApplicationRunner {
-
-    private static final Logger log = LoggerFactory.getLogger(ClientApp.class);
-    private final HttpSyncGraphQlClient client;
-
-    public ClientApp(RestClient.Builder builder) {
-        RestClient restClient = builder.baseUrl("http://localhost:8080/graphql").build();
-        this.client = HttpSyncGraphQlClient.builder(restClient).build();
-    }
-
-    public static void main(String[] args) {
-        new SpringApplicationBuilder(ClientApp.class).web(WebApplicationType.NONE).run(args);
-    }
-
-    @Override
-    public void run(ApplicationArguments args) throws Exception {
-        log.info("Client App: Retrieving Book synchronously");
-        var document = """
-                query findBookById($id: Int!) {
-                    book(id: $id) {
-                        id
-                        title
-                        author {
-                            id
-                            name
-                        }
-                    }
-                }
-                """;
-        var book = client.document(document)
-                .variable("id", 1L)
-                .retrieveSync("book")
-                .toEntity(Book.class);
-        log.info("Book: {}", book);
-
-        // could use .retrieve() here for sync calls only catch is webflux needs to be on the classpath
-    }
-}
@@ -7,12 +7,14 @@ import dev.danvega.books.book.BookRepository;
 import dev.danvega.books.review.Review;
 import dev.danvega.books.review.ReviewRepository;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 
 @Component
+@Profile("!synthetic")
 public class DataLoader implements CommandLineRunner {
 
     private final AuthorRepository authorRepository;
@@ -0,0 +1,175 @@
+package dev.danvega.books;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds a large, reproducible dataset instead of {@link DataLoader} when the {@code synthetic}
+ * profile is active, e.g. {@code --spring.profiles.active=synthetic --books.synthetic.authors=5000}.
+ * <p>
+ * Books per author and reviews per book follow Zipf distributions, so a few authors and books
+ * dominate the way they do in a real catalog. With the defaults that's about 5,500 books and
+ * 1M reviews. Rows are written with plain JDBC batches and explicit ids, bypassing Hibernate;
+ * the id sequences are moved past them afterwards.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[] FIRST_NAMES = {"Ada", "Alan", "Barbara", "Brian", "Dennis", "Donald", "Edsger", "Frances",
+            "Grace", "James", "Joshua", "Ken", "Leslie", "Linus", "Margaret", "Martin", "Niklaus", "Radia", "Rob", "Sophie"};
+    private static final String[] LAST_NAMES = {"Allen", "Bloch", "Dijkstra", "Fowler", "Goetz", "Hamilton", "Hopper", "Kernighan",
+            "Knuth", "Lamport", "Liskov", "Lovelace", "Perlman", "Pike", "Ritchie", "Stroustrup", "Thompson", "Turing", "Wilson", "Wirth"};
+    private static final String[] TOPICS = {"Spring Boot", "GraphQL", "Java", "Kotlin", "Microservices", "Postgres", "Kubernetes",
+            "Reactive Systems", "Hibernate", "Cloud Native", "Security", "Testing", "Concurrency", "Observability", "Data Access"};
+    private static final String[] FORMS = {"in Action", "Cookbook", "Patterns", "Up and Running", "Essentials", "the Hard Way",
+            "for Professionals", "Deep Dive", "Recipes", "Internals"};
+    private static final String[] COMMENTS = {"Changed how I write code.", "Solid, but a bit dated.", "Too long for what it covers.",
+            "Great examples throughout.", "Not for beginners.", "Exactly what I needed.", "Skimmed most of it.", null};
+    // one and five stars are more common than the middle, as on most review sites
+    private static final int[] RATINGS = {1, 1, 2, 3, 4, 4, 5, 5, 5, 5};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyntheticDataProperties properties;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, SyntheticDataProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(String... args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM author", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Skipping synthetic data, the database already has {} authors", existing);
+            return;
+        }
+        long start = System.nanoTime();
+        var random = new SplittableRandom(properties.seed());
+        var booksPerAuthor = new Zipf(properties.maxBooksPerAuthor(), properties.booksExponent());
+        var reviewsPerBook = new Zipf(properties.maxReviewsPerBook(), properties.reviewsExponent());
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        var authors = new Batch("INSERT INTO author (id, name) VALUES (?, ?)", null);
+        var books = new Batch("INSERT INTO book (id, title, author_id) VALUES (?, ?, ?)", authors);
+        var reviews = new Batch("INSERT INTO review (id, rating, comment, created_at, reviewer_name, verified, book_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", books);
+        long bookId = 0;
+        long reviewId = 0;
+        for (long authorId = 1; authorId <= properties.authors(); authorId++) {
+            authors.add(authorId, pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES) + " " + authorId);
+            int bookCount = booksPerAuthor.sample(random);
+            for (int b = 0; b < bookCount; b++) {
+                bookId++;
+                books.add(bookId, pick(random, TOPICS) + " " + pick(random, FORMS) + ", Volume " + bookId, authorId);
+                // ranks start at 1, so shift by one to leave some books without reviews
+                int reviewCount = reviewsPerBook.sample(random) - 1;
+                for (int r = 0; r < reviewCount; r++) {
+                    reviewId++;
+                    reviews.add(reviewId, RATINGS[random.nextInt(RATINGS.length)], pick(random, COMMENTS),
+                            Timestamp.valueOf(now.minusMinutes(random.nextLong(3L * 365 * 24 * 60))),
+                            pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES).charAt(0) + ".",
+                            random.nextInt(3) > 0, bookId);
+                }
+            }
+        }
+        reviews.flush();
+
+        // the pooled optimizer treats the sequence value as the top of the last block handed out
+        jdbcTemplate.execute("SELECT setval('author_seq', (SELECT max(id) FROM author))");
+        jdbcTemplate.execute("SELECT setval('book_seq', (SELECT max(id) FROM book))");
+        jdbcTemplate.execute("SELECT setval('review_seq', (SELECT max(id) FROM review))");
+        jdbcTemplate.execute("ANALYZE author, book, review");
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long rows = properties.authors() + bookId + reviewId;
+        log.info("Generated {} authors, {} books and {} reviews in {}s ({} rows/s)", properties.authors(), bookId, reviewId,
+                Math.round(seconds), Math.round(rows / seconds));
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Rows for one insert statement, sent as a JDBC batch whenever {@code batchSize} are pending.
+     * The parent table's pending rows are flushed first, so foreign keys always resolve.
+     */
+    private final class Batch {
+
+        private final String sql;
+        private final Batch parent;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql, Batch parent) {
+            this.sql = sql;
+            this.parent = parent;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == properties.batchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    /**
+     * Samples ranks 1..n with probability proportional to 1 / rank^exponent, by binary search
+     * over the precomputed cumulative distribution.
+     */
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 1; rank <= n; rank++) {
+                sum += 1 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+            return low + 1;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dev.danvega.books;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param seed seed of the random generator, the same seed always produces the same data
+ * @param authors number of authors
+ * @param maxBooksPerAuthor upper bound of the Zipf distribution of books per author
+ * @param booksExponent Zipf exponent for books per author, higher means more authors with a single book
+ * @param maxReviewsPerBook upper bound of the Zipf distribution of reviews per book
+ * @param reviewsExponent Zipf exponent for reviews per book, higher means a longer tail of books with few reviews
+ * @param batchSize rows per JDBC batch
+ */
+@ConfigurationProperties("books.synthetic")
+public record SyntheticDataProperties(@DefaultValue("42") long seed,
+                                      @DefaultValue("1000") int authors,
+                                      @DefaultValue("50") int maxBooksPerAuthor,
+                                      @DefaultValue("1.5") double booksExponent,
+                                      @DefaultValue("2000") int maxReviewsPerBook,
+                                      @DefaultValue("1.1") double reviewsExponent,
+                                      @DefaultValue("5000") int batchSize) {
+}
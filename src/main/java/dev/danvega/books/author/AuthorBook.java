@@ -0,0 +1,7 @@
+package dev.danvega.books.author;
+
+/**
+ * A book as the author catalog service describes it.
+ */
+public record AuthorBook(Long id, String title) {
+}
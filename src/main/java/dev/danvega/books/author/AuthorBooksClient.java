@@ -0,0 +1,267 @@
+package dev.danvega.books.author;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.danvega.books.book.BookAddedEvent;
+import dev.danvega.books.book.BooksAddedEvent;
+import dev.danvega.books.graphql.RemoteFieldExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up the books of authors through an {@link AuthorBooksSource}, keeping the calls to it
+ * proportional to the distinct authors asked for rather than to the number of requests.
+ * <ul>
+ *     <li>books fetched within the time to live are served from a bounded cache</li>
+ *     <li>a lookup for an author that is already being fetched shares that call</li>
+ *     <li>other lookups wait up to the batch window, across all requests, and go out in one call,
+ *     which counts against the cap on concurrent calls of the {@link RemoteFieldExecutor}</li>
+ *     <li>failed or slow calls fall back to cached books past their time to live, and enough of
+ *     them in a row open a circuit breaker that keeps further calls away from the source for a while</li>
+ * </ul>
+ */
+public class AuthorBooksClient implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorBooksClient.class);
+
+    private final AuthorBooksSource source;
+    private final AuthorBooksProperties properties;
+    private final RemoteFieldExecutor remoteCalls;
+    private final Cache<Long, CachedBooks> cache;
+    private final Map<Long, CompletableFuture<List<AuthorBook>>> inFlight = new ConcurrentHashMap<>();
+    private final CircuitBreaker breaker;
+
+    // guarded by this
+    private Map<Long, CompletableFuture<List<AuthorBook>>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("author-books-batcher").daemon().factory());
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter stale;
+    private final DistributionSummary batchSize;
+
+    private record CachedBooks(List<AuthorBook> books, long fetchedAt) {
+    }
+
+    AuthorBooksClient(AuthorBooksSource source, AuthorBooksProperties properties, RemoteFieldExecutor remoteCalls,
+                      MeterRegistry meterRegistry) {
+        this.source = source;
+        this.properties = properties;
+        this.remoteCalls = remoteCalls;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.staleTimeToLive())
+                .build();
+        this.breaker = new CircuitBreaker(properties.failureThreshold(), properties.openDuration().toNanos());
+        this.succeeded = calls(meterRegistry, "success");
+        this.failed = calls(meterRegistry, "failure");
+        this.rejected = calls(meterRegistry, "rejected");
+        this.stale = Counter.builder("books.author-books.stale")
+                .description("Lookups answered with books past their time to live")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("books.author-books.batch-size")
+                .description("Distinct authors in one call to the source")
+                .register(meterRegistry);
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("books.author-books.calls")
+                .description("Calls to the author books source")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<List<AuthorBook>> booksOf(Long authorId) {
+        CachedBooks cached = cache.getIfPresent(authorId);
+        if (cached != null && System.nanoTime() - cached.fetchedAt() < properties.timeToLive().toNanos()) {
+            return CompletableFuture.completedFuture(cached.books());
+        }
+        if (breaker.isOpen()) {
+            return fallback(authorId, null);
+        }
+        CompletableFuture<List<AuthorBook>> lookup = inFlight.computeIfAbsent(authorId, this::enqueue);
+        lookup.whenComplete((books, ex) -> inFlight.remove(authorId, lookup));
+        return lookup;
+    }
+
+    private synchronized CompletableFuture<List<AuthorBook>> enqueue(Long authorId) {
+        CompletableFuture<List<AuthorBook>> lookup = new CompletableFuture<>();
+        pending.put(authorId, lookup);
+        if (pending.size() >= properties.maxBatchSize()) {
+            // taken while still holding the lock, so lookups arriving meanwhile start the next batch, and
+            // sent from the batcher thread, so a rejected batch never completes lookups inside inFlight.computeIfAbsent
+            Map<Long, CompletableFuture<List<AuthorBook>>> batch = takePending();
+            scheduler.execute(() -> send(batch));
+        }
+        else if (scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flush, properties.batchWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return lookup;
+    }
+
+    private void flush() {
+        Map<Long, CompletableFuture<List<AuthorBook>>> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    // callers hold the lock
+    private Map<Long, CompletableFuture<List<AuthorBook>>> takePending() {
+        Map<Long, CompletableFuture<List<AuthorBook>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(Map<Long, CompletableFuture<List<AuthorBook>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            batch.forEach((authorId, lookup) -> complete(lookup, fallback(authorId, null)));
+            return;
+        }
+        batchSize.record(batch.size());
+        remoteCalls.call(() -> source.booksOf(batch.keySet()), properties.callTimeout())
+                .whenComplete((books, ex) -> {
+                    if (ex != null) {
+                        onFailure(batch, ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    }
+                    else {
+                        onSuccess(batch, books);
+                    }
+                });
+    }
+
+    private void onFailure(Map<Long, CompletableFuture<List<AuthorBook>>> batch, Throwable cause) {
+        log.warn("Fetching books of {} authors failed: {}", batch.size(), cause.toString());
+        failed.increment();
+        breaker.onFailure();
+        batch.forEach((authorId, lookup) -> complete(lookup, fallback(authorId, cause)));
+    }
+
+    private void onSuccess(Map<Long, CompletableFuture<List<AuthorBook>>> batch, Map<Long, List<AuthorBook>> books) {
+        succeeded.increment();
+        breaker.onSuccess();
+        long fetchedAt = System.nanoTime();
+        batch.forEach((authorId, lookup) -> {
+            List<AuthorBook> authorBooks = List.copyOf(books.getOrDefault(authorId, List.of()));
+            cache.put(authorId, new CachedBooks(authorBooks, fetchedAt));
+            lookup.complete(authorBooks);
+        });
+    }
+
+    // with the local source the next lookup then sees the new book straight away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAdded(BookAddedEvent event) {
+        cache.invalidate(event.authorId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksAdded(BooksAddedEvent event) {
+        cache.invalidateAll(event.books().stream().map(BookAddedEvent::authorId).collect(Collectors.toSet()));
+    }
+
+    private CompletableFuture<List<AuthorBook>> fallback(Long authorId, @Nullable Throwable cause) {
+        CachedBooks cached = cache.getIfPresent(authorId);
+        if (cached != null) {
+            stale.increment();
+            return CompletableFuture.completedFuture(cached.books());
+        }
+        return CompletableFuture.failedFuture(new AuthorBooksUnavailableException(authorId, cause));
+    }
+
+    private static void complete(CompletableFuture<List<AuthorBook>> lookup, CompletableFuture<List<AuthorBook>> result) {
+        result.whenComplete((books, ex) -> {
+            if (ex != null) {
+                lookup.completeExceptionally(ex);
+            }
+            else {
+                lookup.complete(books);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Opens after {@code failureThreshold} failed calls in a row. Once {@code openDuration} has
+     * passed a single call is let through, its outcome closes the breaker or opens it again.
+     */
+    static final class CircuitBreaker {
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private int failures;
+        private long openUntil;
+        private boolean open;
+        private boolean trialInFlight;
+
+        CircuitBreaker(int failureThreshold, long openNanos) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openNanos;
+        }
+
+        synchronized boolean isOpen() {
+            return open && (System.nanoTime() - openUntil < 0 || trialInFlight);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (!open) {
+                return true;
+            }
+            if (System.nanoTime() - openUntil < 0 || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+            open = false;
+            trialInFlight = false;
+        }
+
+        synchronized void onFailure() {
+            trialInFlight = false;
+            if (++failures >= failureThreshold) {
+                if (!open) {
+                    log.warn("Author books source failed {} times in a row, opening the circuit breaker", failures);
+                }
+                open = true;
+                openUntil = System.nanoTime() + openNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package dev.danvega.books.author;
+
+import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.graphql.RemoteFieldExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+@Configuration(proxyBeanMethods = false)
+class AuthorBooksConfiguration {
+
+    @Bean
+    @ConditionalOnProperty("books.author-books.url")
+    AuthorBooksSource httpAuthorBooksSource(RestClient.Builder builder, AuthorBooksProperties properties) {
+        var requestFactory = new JdkClientHttpRequestFactory();
+        requestFactory.setReadTimeout(properties.callTimeout());
+        return new HttpAuthorBooksSource(builder.baseUrl(properties.url().toString())
+                .requestFactory(requestFactory)
+                .build());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    AuthorBooksSource localAuthorBooksSource(BookRepository bookRepository) {
+        return new LocalAuthorBooksSource(bookRepository);
+    }
+
+    @Bean
+    AuthorBooksClient authorBooksClient(AuthorBooksSource source, AuthorBooksProperties properties,
+                                        RemoteFieldExecutor remoteFields, MeterRegistry meterRegistry) {
+        return new AuthorBooksClient(source, properties, remoteFields, meterRegistry);
+    }
+
+    @Bean
+    AuthorBooksExceptionResolver authorBooksExceptionResolver() {
+        return new AuthorBooksExceptionResolver();
+    }
+}
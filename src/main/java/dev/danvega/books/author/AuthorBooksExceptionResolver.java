@@ -0,0 +1,31 @@
+package dev.danvega.books.author;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+
+import java.util.Map;
+
+/**
+ * Turns books the author catalog couldn't provide, with nothing cached to fall back on, into an
+ * error on {@code booksWithDelay} only, the field resolves to null and the rest of the response
+ * is still returned.
+ */
+class AuthorBooksExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    static final ErrorClassification UNAVAILABLE = ErrorClassification.errorClassification("UNAVAILABLE");
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof AuthorBooksUnavailableException unavailable) {
+            return GraphqlErrorBuilder.newError(env)
+                    .errorType(UNAVAILABLE)
+                    .message(unavailable.getMessage())
+                    .extensions(Map.of("authorId", unavailable.getAuthorId()))
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.danvega.books.author;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * @param url base URL of the author catalog service, the books are read from our own database without one
+ * @param batchWindow how long a lookup waits for others to share its remote call
+ * @param maxBatchSize authors in one remote call, a full batch is sent without waiting for the window
+ * @param timeToLive how long fetched books are served without asking the service again
+ * @param staleTimeToLive how long fetched books are kept to answer with while the service is failing
+ * @param maximumSize authors kept in the cache
+ * @param callTimeout remote calls taking longer, including the wait for a free slot, count as failed
+ * @param failureThreshold consecutive failed calls that open the circuit breaker
+ * @param openDuration how long an open breaker answers from the cache only, before one call is let through to try again
+ */
+@ConfigurationProperties("books.author-books")
+public record AuthorBooksProperties(@Nullable URI url,
+                                    @DefaultValue("10ms") Duration batchWindow,
+                                    @DefaultValue("100") int maxBatchSize,
+                                    @DefaultValue("1m") Duration timeToLive,
+                                    @DefaultValue("10m") Duration staleTimeToLive,
+                                    @DefaultValue("10000") long maximumSize,
+                                    @DefaultValue("1s") Duration callTimeout,
+                                    @DefaultValue("5") int failureThreshold,
+                                    @DefaultValue("30s") Duration openDuration) {
+}
@@ -0,0 +1,18 @@
+package dev.danvega.books.author;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where {@code Author.booksWithDelay} comes from. Implementations are called with batches of
+ * distinct author ids and may block; caching, batching and failure handling are left to
+ * {@link AuthorBooksClient}.
+ */
+public interface AuthorBooksSource {
+
+    /**
+     * Books of each of the given authors, authors without books may be left out.
+     */
+    Map<Long, List<AuthorBook>> booksOf(Set<Long> authorIds);
+}
@@ -0,0 +1,17 @@
+package dev.danvega.books.author;
+
+import org.springframework.lang.Nullable;
+
+public class AuthorBooksUnavailableException extends RuntimeException {
+
+    private final Long authorId;
+
+    AuthorBooksUnavailableException(Long authorId, @Nullable Throwable cause) {
+        super("Books of author " + authorId + " are unavailable", cause);
+        this.authorId = authorId;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+}
@@ -2,17 +2,24 @@ package dev.danvega.books.author;
 
 import dev.danvega.books.book.Book;
 import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.graphql.Pagination;
+import dev.danvega.books.graphql.RemoteFieldExecutor;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Controller
@@ -21,24 +28,41 @@ public class AuthorController {
     private static final Logger log = LoggerFactory.getLogger(AuthorController.class);
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final AuthorBooksClient authorBooks;
+    private final RemoteFieldExecutor remoteFields;
 
-    public AuthorController(AuthorRepository authorRepository, BookRepository bookRepository) {
+    public AuthorController(AuthorRepository authorRepository, BookRepository bookRepository,
+                            AuthorBooksClient authorBooks, RemoteFieldExecutor remoteFields) {
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
+        this.authorBooks = authorBooks;
+        this.remoteFields = remoteFields;
     }
 
     @QueryMapping
-    public List<Author> authors() {
+    public List<Author> authors(DataFetchingFieldSelectionSet selectionSet) {
         //return authorRepository.findAllWithBooks();
-        return authorRepository.findAll();
+        return authorRepository.findAll(selectionSet.contains("name"), Pagination.listLimit());
     }
 
+    @QueryMapping
+    public Window<Author> authorsConnection(ScrollSubrange subrange) {
+        return authorRepository.findBy(Pagination.position(subrange), Pagination.limit(subrange), Sort.by("id"));
+    }
+
+    // the client shares one call to the author catalog among all authors asked for at about the same time
     @SchemaMapping
-    public List<Book> booksWithDelay(Author author) throws InterruptedException {
-        // this could be a call to some microservice would retrieve books by authorId
-        log.info("Retrieving books for author " + author.getName());
-        Thread.sleep((1000));
-        return new ArrayList<>();
+    public CompletableFuture<List<Book>> booksWithDelay(Author author, DataFetchingEnvironment env) {
+        return remoteFields.withTimeout(env, authorBooks.booksOf(author.getId()))
+                .thenApply(books -> books.stream()
+                        .map(authorBook -> {
+                            var book = new Book();
+                            book.setId(authorBook.id());
+                            book.setTitle(authorBook.title());
+                            book.setAuthor(author);
+                            return book;
+                        })
+                        .toList());
     }
 
     @BatchMapping
@@ -55,7 +79,7 @@ public class AuthorController {
 
         // Group books by author ID
         Map<Long, List<Book>> booksByAuthorId = allBooks.stream()
-                .collect(Collectors.groupingBy(book -> book.getAuthor().getId()));
+                .collect(Collectors.groupingBy(Book::authorId));
 
         // Map back to original author order
         return authors.stream()
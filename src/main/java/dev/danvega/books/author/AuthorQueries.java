@@ -0,0 +1,15 @@
+package dev.danvega.books.author;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+public interface AuthorQueries {
+
+    /**
+     * Reads authors ordered by id, with the name only if {@code name} is set, as plain objects
+     * that aren't attached to the persistence context.
+     */
+    List<Author> findAll(boolean name, Limit limit);
+
+}
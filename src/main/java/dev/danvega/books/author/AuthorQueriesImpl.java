@@ -0,0 +1,33 @@
+package dev.danvega.books.author;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+class AuthorQueriesImpl implements AuthorQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Author> findAll(boolean name, Limit limit) {
+        String jpql = name
+                ? "select a.id as id, a.name as name from Author a order by a.id"
+                : "select a.id as id from Author a order by a.id";
+        return entityManager.createQuery(jpql, Tuple.class)
+                .setMaxResults(limit.max())
+                .getResultList().stream()
+                .map(row -> {
+                    var author = new Author();
+                    author.setId(row.get("id", Long.class));
+                    if (name) {
+                        author.setName(row.get("name", String.class));
+                    }
+                    return author;
+                })
+                .toList();
+    }
+}
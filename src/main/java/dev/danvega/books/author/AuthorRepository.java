@@ -1,14 +1,20 @@
 package dev.danvega.books.author;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
-public interface AuthorRepository extends JpaRepository<Author,Long> {
+public interface AuthorRepository extends JpaRepository<Author,Long>, AuthorQueries {
 
     List<Author> findAllByNameContainsIgnoreCase(String name);
 
     @Query("SELECT a FROM Author a LEFT JOIN FETCH a.books")
     List<Author> findAllWithBooks();
+
+    Window<Author> findBy(ScrollPosition position, Limit limit, Sort sort);
 }
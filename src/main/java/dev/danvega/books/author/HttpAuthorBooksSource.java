@@ -0,0 +1,35 @@
+package dev.danvega.books.author;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Calls the author catalog service, one request per batch:
+ * {@code GET /authors/books?ids=1,2,3} answers with the books keyed by author id.
+ */
+class HttpAuthorBooksSource implements AuthorBooksSource {
+
+    private static final ParameterizedTypeReference<Map<Long, List<AuthorBook>>> BOOKS_BY_AUTHOR =
+            new ParameterizedTypeReference<>() {};
+
+    private final RestClient restClient;
+
+    HttpAuthorBooksSource(RestClient restClient) {
+        this.restClient = restClient;
+    }
+
+    @Override
+    public Map<Long, List<AuthorBook>> booksOf(Set<Long> authorIds) {
+        String ids = authorIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Map<Long, List<AuthorBook>> books = restClient.get()
+                .uri("/authors/books?ids={ids}", ids)
+                .retrieve()
+                .body(BOOKS_BY_AUTHOR);
+        return books != null ? books : Map.of();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.danvega.books.author;
+
+import dev.danvega.books.book.BookRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the books from our own database, used when no author catalog service is configured.
+ */
+class LocalAuthorBooksSource implements AuthorBooksSource {
+
+    private final BookRepository bookRepository;
+
+    LocalAuthorBooksSource(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public Map<Long, List<AuthorBook>> booksOf(Set<Long> authorIds) {
+        return bookRepository.findByAuthorIdIn(List.copyOf(authorIds)).stream()
+                .collect(Collectors.groupingBy(book -> book.authorId(),
+                        Collectors.mapping(book -> new AuthorBook(book.getId(), book.getTitle()), Collectors.toList())));
+    }
+}
@@ -0,0 +1,24 @@
+package dev.danvega.books.book;
+
+import java.util.List;
+
+/**
+ * Outcome of {@code addBooks}: one result per input, in input order, and how fast the valid
+ * ones were written.
+ */
+public record AddBooksPayload(List<AddBookResult> results, int added, int failed, long elapsedMillis, double booksPerSecond) {
+
+    /**
+     * Either the saved book or the reason the input at {@code index} was rejected.
+     */
+    public record AddBookResult(int index, Book book, String error) {
+
+        static AddBookResult added(int index, Book book) {
+            return new AddBookResult(index, book, null);
+        }
+
+        static AddBookResult failed(int index, String error) {
+            return new AddBookResult(index, null, error);
+        }
+    }
+}
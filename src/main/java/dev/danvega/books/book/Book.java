@@ -2,12 +2,16 @@ package dev.danvega.books.book;
 
 import dev.danvega.books.author.Author;
 import jakarta.persistence.*;
+import org.hibernate.proxy.HibernateProxy;
+
 import java.util.Objects;
 
 @Entity
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // a pooled sequence hands out ids in blocks, so inserts can be batched, unlike IDENTITY
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -39,6 +43,15 @@ public class Book {
         this.author = author;
     }
 
+    // reads the foreign key off a lazy proxy without initializing it
+    // (deliberately not a getter, so Spring Data doesn't mistake it for a mapped property)
+    public Long authorId() {
+        if (author instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return author != null ? author.getId() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
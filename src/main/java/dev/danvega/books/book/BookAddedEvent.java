@@ -0,0 +1,8 @@
+package dev.danvega.books.book;
+
+/**
+ * Published when a new book is saved. Listeners that only care about committed data
+ * should use {@code @TransactionalEventListener}.
+ */
+public record BookAddedEvent(Long bookId, String title, Long authorId) {
+}
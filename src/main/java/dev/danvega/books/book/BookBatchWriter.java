@@ -0,0 +1,110 @@
+package dev.danvega.books.book;
+
+import dev.danvega.books.author.Author;
+import dev.danvega.books.author.AuthorRepository;
+import dev.danvega.books.book.AddBooksPayload.AddBookResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts many books in one transaction. All referenced authors are read with a single query,
+ * and the persistence context is flushed and cleared every {@code hibernate.jdbc.batch_size}
+ * books, so each flush goes to the database as one JDBC batch and no more than that many managed
+ * entities are held at once. The input itself, one result per input and one event per added book
+ * are still kept until the call returns, so memory grows with the input; very large loads belong
+ * in the catalog importer, which commits and releases them batch by batch.
+ */
+@Service
+public class BookBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(BookBatchWriter.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher events;
+    private final int batchSize;
+    private final Timer bulkInsertTimer;
+
+    public BookBatchWriter(AuthorRepository authorRepository, ApplicationEventPublisher events, MeterRegistry meterRegistry,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.authorRepository = authorRepository;
+        this.events = events;
+        this.batchSize = batchSize;
+        this.bulkInsertTimer = Timer.builder("books.insert")
+                .description("Time spent inserting one book")
+                .tag("path", "bulk")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public AddBooksPayload addBooks(List<BookInput> inputs) {
+        long start = System.nanoTime();
+
+        List<Long> authorIds = inputs.stream().map(BookInput::authorId).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Author> authors = authorRepository.findAllById(authorIds).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+
+        List<AddBookResult> results = new ArrayList<>(inputs.size());
+        List<BookAddedEvent> added = new ArrayList<>(inputs.size());
+        int pending = 0;
+        for (int index = 0; index < inputs.size(); index++) {
+            BookInput input = inputs.get(index);
+            if (!StringUtils.hasText(input.title())) {
+                results.add(AddBookResult.failed(index, "Title must not be blank"));
+                continue;
+            }
+            Author author = authors.get(input.authorId());
+            if (author == null) {
+                results.add(AddBookResult.failed(index, "No author with id " + input.authorId()));
+                continue;
+            }
+            var book = new Book();
+            book.setTitle(input.title());
+            book.setAuthor(author);
+            entityManager.persist(book);
+            results.add(AddBookResult.added(index, book));
+            added.add(new BookAddedEvent(book.getId(), book.getTitle(), author.getId()));
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        if (!added.isEmpty()) {
+            events.publishEvent(new BooksAddedEvent(added));
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        int addedCount = added.size();
+        if (addedCount > 0) {
+            // per book, so it compares directly with the single addBook timer
+            bulkInsertTimer.record(elapsedNanos / addedCount, TimeUnit.NANOSECONDS);
+        }
+        double booksPerSecond = elapsedNanos > 0 ? addedCount * 1_000_000_000d / elapsedNanos : 0;
+        log.info("Added {} of {} books in {} ms ({} books/s)", addedCount, inputs.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(booksPerSecond));
+        return new AddBooksPayload(results, addedCount, inputs.size() - addedCount,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), booksPerSecond);
+    }
+}
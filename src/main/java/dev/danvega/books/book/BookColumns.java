@@ -0,0 +1,18 @@
+package dev.danvega.books.book;
+
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+/**
+ * The columns a list of books has to be read with, worked out from what the client selected.
+ * The id is always read. The author's name needs a join; its id is the foreign key on
+ * {@code book} and doesn't.
+ */
+public record BookColumns(boolean title, boolean authorId, boolean authorName) {
+
+    public static BookColumns of(DataFetchingFieldSelectionSet selectionSet) {
+        return new BookColumns(
+                selectionSet.contains("title"),
+                selectionSet.contains("author"),
+                selectionSet.contains("author/name"));
+    }
+}
@@ -1,29 +1,65 @@
 package dev.danvega.books.book;
 
+import dev.danvega.books.author.Author;
 import dev.danvega.books.author.AuthorRepository;
+import dev.danvega.books.graphql.Pagination;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Controller
 public class BookController {
 
+    private static final Logger log = LoggerFactory.getLogger(BookController.class);
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final BookBatchWriter bookBatchWriter;
+    private final ApplicationEventPublisher events;
+    private final Timer singleInsertTimer;
 
-    public BookController(BookRepository bookRepository, AuthorRepository authorRepository) {
+    public BookController(BookRepository bookRepository, AuthorRepository authorRepository, BookBatchWriter bookBatchWriter,
+                          ApplicationEventPublisher events, MeterRegistry meterRegistry) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
+        this.bookBatchWriter = bookBatchWriter;
+        this.events = events;
+        this.singleInsertTimer = Timer.builder("books.insert")
+                .description("Time spent inserting one book")
+                .tag("path", "single")
+                .register(meterRegistry);
     }
 
     // @SchemaMapping(typeName = "Query", field = "books")
     @QueryMapping
-    public List<Book> books() {
-        return bookRepository.findAll();
+    public List<Book> books(DataFetchingFieldSelectionSet selectionSet) {
+        // only the selected columns are read, the author is joined only for its name
+        return bookRepository.findAll(BookColumns.of(selectionSet), Pagination.listLimit());
+    }
+
+    @QueryMapping
+    public Window<Book> booksConnection(ScrollSubrange subrange) {
+        return bookRepository.findBy(Pagination.position(subrange), Pagination.limit(subrange), Sort.by("id"));
     }
 
     @QueryMapping
@@ -32,12 +68,56 @@ public class BookController {
     }
 
     @MutationMapping
+    @Transactional
     public Book addBook(@Argument BookInput bookInput) {
-        var author = authorRepository.findById(bookInput.authorId());
-        var book = new Book();
-        book.setTitle(bookInput.title());
-        book.setAuthor(author.orElseThrow());
-        return bookRepository.save(book);
+        return singleInsertTimer.record(() -> {
+            var author = authorRepository.findById(bookInput.authorId());
+            var book = new Book();
+            book.setTitle(bookInput.title());
+            book.setAuthor(author.orElseThrow());
+            var saved = bookRepository.save(book);
+            events.publishEvent(new BookAddedEvent(saved.getId(), saved.getTitle(), saved.authorId()));
+            return saved;
+        });
+    }
+
+    @MutationMapping
+    public AddBooksPayload addBooks(@Argument List<BookInput> inputs) {
+        return bookBatchWriter.addBooks(inputs);
+    }
+
+    @BatchMapping
+    public Map<Book, Author> author(List<Book> books) {
+        log.info("Batch loading authors for {} books", books.size());
+
+        // Authors already loaded in this request are reused, the rest are collected by id
+        Map<Long, Author> authorsById = new HashMap<>();
+        Set<Long> missingIds = new HashSet<>();
+        for (Book book : books) {
+            Author author = book.getAuthor();
+            if (author == null) {
+                continue;
+            }
+            if (Hibernate.isInitialized(author)) {
+                authorsById.put(author.getId(), author);
+            } else {
+                missingIds.add(book.authorId());
+            }
+        }
+
+        // Make a single query for all authors that are still missing
+        authorRepository.findAllById(missingIds)
+                .forEach(author -> authorsById.put(author.getId(), author));
+
+        // A map rather than a list, a book without an author is left out and resolves to null
+        Map<Book, Author> authors = new LinkedHashMap<>();
+        for (Book book : books) {
+            Author author = authorsById.get(book.authorId());
+            if (author != null) {
+                authors.put(book, author);
+            }
+        }
+        return authors;
     }
 
 }
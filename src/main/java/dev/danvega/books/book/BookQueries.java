@@ -0,0 +1,16 @@
+package dev.danvega.books.book;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+public interface BookQueries {
+
+    /**
+     * Reads books ordered by id with only the given columns, as plain objects that aren't
+     * attached to the persistence context. Their author, if read, is a plain object as well,
+     * holding the id and, if it was read, the name.
+     */
+    List<Book> findAll(BookColumns columns, Limit limit);
+
+}
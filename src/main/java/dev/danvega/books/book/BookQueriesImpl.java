@@ -0,0 +1,59 @@
+package dev.danvega.books.book;
+
+import dev.danvega.books.author.Author;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+class BookQueriesImpl implements BookQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Book> findAll(BookColumns columns, Limit limit) {
+        var select = new StringJoiner(", ", "select ", " from Book b");
+        select.add("b.id as id");
+        if (columns.title()) {
+            select.add("b.title as title");
+        }
+        if (columns.authorName()) {
+            select.add("a.id as authorId").add("a.name as authorName");
+        }
+        else if (columns.authorId()) {
+            // the foreign key, no join needed
+            select.add("b.author.id as authorId");
+        }
+        String jpql = select + (columns.authorName() ? " left join b.author a" : "") + " order by b.id";
+
+        return entityManager.createQuery(jpql, Tuple.class)
+                .setMaxResults(limit.max())
+                .getResultList().stream()
+                .map(row -> toBook(row, columns))
+                .toList();
+    }
+
+    private static Book toBook(Tuple row, BookColumns columns) {
+        var book = new Book();
+        book.setId(row.get("id", Long.class));
+        if (columns.title()) {
+            book.setTitle(row.get("title", String.class));
+        }
+        if (columns.authorId() || columns.authorName()) {
+            Long authorId = row.get("authorId", Long.class);
+            if (authorId != null) {
+                var author = new Author();
+                author.setId(authorId);
+                if (columns.authorName()) {
+                    author.setName(row.get("authorName", String.class));
+                }
+                book.setAuthor(author);
+            }
+        }
+        return book;
+    }
+}
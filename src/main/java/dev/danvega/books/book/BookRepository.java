@@ -1,16 +1,22 @@
 package dev.danvega.books.book;
 
 import dev.danvega.books.author.Author;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Arrays;
 import java.util.List;
 
-public interface BookRepository extends JpaRepository<Book,Long> {
+public interface BookRepository extends JpaRepository<Book,Long>, BookQueries {
 
     List<Book> findAllByTitleContainsIgnoreCase(String title);
 
     Arrays findAllByAuthorIdIn(List<Long> authorIds);
 
     List<Book> findByAuthorIdIn(List<Long> authorIds);
+
+    Window<Book> findBy(ScrollPosition position, Limit limit, Sort sort);
 }
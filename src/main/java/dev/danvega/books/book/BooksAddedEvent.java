@@ -0,0 +1,14 @@
+package dev.danvega.books.book;
+
+import java.util.List;
+
+/**
+ * Published once for a batch of saved books, so listeners can handle the whole batch in one pass
+ * rather than once per book. Like {@link BookAddedEvent}, it's meant for {@code @TransactionalEventListener}s.
+ */
+public record BooksAddedEvent(List<BookAddedEvent> books) {
+
+    public BooksAddedEvent {
+        books = List.copyOf(books);
+    }
+}
@@ -0,0 +1,10 @@
+package dev.danvega.books.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the catalog export: a book, its author and a summary of its reviews.
+ */
+public record BookExportRow(Long id, String title, Long authorId, String authorName,
+                            Long reviewCount, Double averageRating, LocalDateTime latestReviewAt) {
+}
@@ -0,0 +1,80 @@
+package dev.danvega.books.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Streams the whole catalog as NDJSON, one {@link BookExportRow} per line. Rows are written as
+ * they come off the database cursor, so memory use doesn't depend on the size of the catalog.
+ */
+@RestController
+public class CatalogExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogExportController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final CatalogExportRepository exportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CatalogExportController(CatalogExportRepository exportRepository, PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper) {
+        this.exportRepository = exportRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/export/books.ndjson")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        StreamingResponseBody body = this::writeCatalog;
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeCatalog(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (SequenceWriter writer = objectMapper.writerFor(BookExportRow.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            rows = transactionTemplate.execute(status -> {
+                long count = 0;
+                try (Stream<BookExportRow> catalog = exportRepository.streamCatalog()) {
+                    for (var iterator = catalog.iterator(); iterator.hasNext(); ) {
+                        writer.write(iterator.next());
+                        if (++count % CatalogExportRepository.FETCH_SIZE == 0) {
+                            // hand each fetched block to the client before reading the next one
+                            writer.flush();
+                        }
+                    }
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return count;
+            });
+        }
+        if (rows > 0) {
+            out.write('\n');
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Exported {} books in {} ms", rows, millis);
+    }
+}
@@ -0,0 +1,33 @@
+package dev.danvega.books.export;
+
+import dev.danvega.books.book.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.stream.Stream;
+
+public interface CatalogExportRepository extends Repository<Book, Long> {
+
+    int FETCH_SIZE = 1000;
+
+    /**
+     * Every book with its author and review summary, in id order. The rows are DTOs, so nothing
+     * ends up in the persistence context, and with the fetch size Postgres sends them through a
+     * forward-only cursor instead of all at once. Must be consumed inside a transaction, the
+     * driver only uses a cursor when auto-commit is off.
+     */
+    @Query("""
+            SELECT new dev.danvega.books.export.BookExportRow(
+                b.id, b.title, a.id, a.name, count(r.id), avg(r.rating), max(r.createdAt))
+            FROM Book b
+            LEFT JOIN b.author a
+            LEFT JOIN Review r ON r.book = b
+            GROUP BY b.id, b.title, a.id, a.name
+            ORDER BY b.id
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + FETCH_SIZE))
+    Stream<BookExportRow> streamCatalog();
+}
@@ -0,0 +1,45 @@
+package dev.danvega.books.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Keeps parsed and validated documents so repeated operations skip both steps. Entries are keyed
+ * by the document text and evicted by size once the cache is full. Documents with syntax or
+ * validation errors aren't cached, so invalid requests can't push out the useful entries.
+ */
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> cache;
+
+    public CachingPreparsedDocumentProvider(int maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String query = executionInput.getQuery();
+        PreparsedDocumentEntry entry = cache.getIfPresent(query);
+        if (entry == null) {
+            entry = parseAndValidateFunction.apply(executionInput);
+            if (!entry.hasErrors()) {
+                cache.put(query, entry);
+            }
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    public Cache<String, PreparsedDocumentEntry> getCache() {
+        return cache;
+    }
+}
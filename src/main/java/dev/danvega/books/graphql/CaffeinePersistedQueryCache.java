@@ -0,0 +1,107 @@
+package dev.danvega.books.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Parsed and validated documents for the automatic persisted queries protocol, keyed by the
+ * SHA-256 hash the client sends. A hash-only request for an unknown hash fails with
+ * {@code PersistedQueryNotFound}, which tells the client to send the hash again along with the
+ * document text. Documents on the allowlist never need that round trip, and with
+ * {@code allowlistOnly} they're the only ones that can be run at all.
+ */
+public class CaffeinePersistedQueryCache implements PersistedQueryCache {
+
+    private final Cache<Object, PreparsedDocumentEntry> cache;
+    private final Map<String, String> allowlist;
+    private final boolean allowlistOnly;
+
+    public CaffeinePersistedQueryCache(int maximumSize, Map<String, String> allowlist, boolean allowlistOnly) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.allowlist = Map.copyOf(allowlist);
+        this.allowlistOnly = allowlistOnly;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getPersistedQueryDocumentAsync(Object persistedQueryId, ExecutionInput executionInput,
+                                                                                    PersistedQueryCacheMiss onCacheMiss) {
+        PreparsedDocumentEntry entry = cache.getIfPresent(persistedQueryId);
+        if (entry == null) {
+            // a null query makes the miss handler report PersistedQueryNotFound
+            entry = onCacheMiss.apply(queryFor(persistedQueryId, executionInput));
+            if (!entry.hasErrors()) {
+                cache.put(persistedQueryId, entry);
+            }
+        }
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    private String queryFor(Object persistedQueryId, ExecutionInput executionInput) {
+        String known = allowlist.get(persistedQueryId);
+        if (known != null) {
+            return known;
+        }
+        if (allowlistOnly) {
+            throw new PersistedQueryNotFound(persistedQueryId);
+        }
+        String query = executionInput.getQuery();
+        return PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query) ? null : query;
+    }
+
+    public Cache<Object, PreparsedDocumentEntry> getCache() {
+        return cache;
+    }
+
+    public Map<String, String> getAllowlist() {
+        return allowlist;
+    }
+
+    /**
+     * Reads every document matching the pattern, keyed by the hex SHA-256 hash of its exact text,
+     * which is what clients hash too.
+     */
+    public static Map<String, String> loadAllowlist(ResourcePatternResolver resolver, String locationPattern) {
+        Map<String, String> documents = new HashMap<>();
+        try {
+            for (Resource resource : resolver.getResources(locationPattern)) {
+                String document = resource.getContentAsString(StandardCharsets.UTF_8);
+                documents.put(sha256Hex(document), document);
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load persisted documents from " + locationPattern, ex);
+        }
+        return documents;
+    }
+
+    public static String sha256Hex(String document) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
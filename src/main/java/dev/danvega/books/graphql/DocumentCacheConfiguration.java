@@ -0,0 +1,52 @@
+package dev.danvega.books.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.graphql.GraphQlProperties;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.support.ResourcePatternResolver;
+
+@Configuration(proxyBeanMethods = false)
+class DocumentCacheConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentCacheConfiguration.class);
+
+    @Bean
+    CachingPreparsedDocumentProvider preparsedDocumentProvider(DocumentCacheProperties properties, MeterRegistry meterRegistry) {
+        var provider = new CachingPreparsedDocumentProvider(properties.maximumSize());
+        // hits, misses, evictions and size show up as cache.* metrics tagged cache=graphql.documents
+        CaffeineCacheMetrics.monitor(meterRegistry, provider.getCache(), "graphql.documents");
+        return provider;
+    }
+
+    @Bean
+    CaffeinePersistedQueryCache persistedQueryCache(PersistedQueryProperties properties, ResourcePatternResolver resourcePatternResolver,
+                                                    MeterRegistry meterRegistry) {
+        var allowlist = CaffeinePersistedQueryCache.loadAllowlist(resourcePatternResolver, properties.allowlist());
+        log.info("Loaded {} persisted documents from {}", allowlist.size(), properties.allowlist());
+        var cache = new CaffeinePersistedQueryCache(properties.maximumSize(), allowlist, properties.allowlistOnly());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getCache(), "graphql.persisted-queries");
+        return cache;
+    }
+
+    @Bean
+    GraphQlSourceBuilderCustomizer preparsedDocumentProviderCustomizer(CachingPreparsedDocumentProvider documents,
+                                                                       CaffeinePersistedQueryCache persistedQueryCache,
+                                                                       PersistedQueryProperties properties) {
+        var provider = new PersistedQueryDocumentProvider(persistedQueryCache, documents, properties.allowlistOnly());
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(provider));
+    }
+
+    @Bean
+    FilterRegistrationBean<PersistedQueryRequestFilter> persistedQueryRequestFilter(GraphQlProperties graphQlProperties, ObjectMapper objectMapper) {
+        var registration = new FilterRegistrationBean<>(new PersistedQueryRequestFilter(objectMapper));
+        registration.addUrlPatterns(graphQlProperties.getPath());
+        return registration;
+    }
+}
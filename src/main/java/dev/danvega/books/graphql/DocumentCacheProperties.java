@@ -0,0 +1,11 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maximumSize number of parsed and validated documents kept before the least used are evicted
+ */
+@ConfigurationProperties("books.graphql.document-cache")
+public record DocumentCacheProperties(@DefaultValue("1000") int maximumSize) {
+}
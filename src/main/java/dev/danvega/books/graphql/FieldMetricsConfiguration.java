@@ -0,0 +1,26 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+class FieldMetricsConfiguration {
+
+    @Bean
+    FieldTimingInstrumentation fieldTimingInstrumentation() {
+        return new FieldTimingInstrumentation();
+    }
+
+    @Bean
+    FieldMetricsInstrumentation fieldMetricsInstrumentation(FieldMetricsProperties properties, MeterRegistry meterRegistry) {
+        return new FieldMetricsInstrumentation(properties, meterRegistry);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer sqlStatementCounter() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+}
@@ -0,0 +1,133 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.ResultPath;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the time of every field of a sample of operations in {@code graphql.field} and the SQL
+ * statements its data fetcher issues in {@code graphql.field.statements}, both tagged with
+ * {@code Type.field}. The fetches are measured by {@link FieldTimingInstrumentation}, this only
+ * listens to them. Trivial property fetchers are included, that's where lazy associations get
+ * initialized.
+ * <p>
+ * Statements are also summed per field across the elements of a list. A field that issues more
+ * than the threshold for one list is a likely N+1: it is counted in {@code graphql.field.n-plus-one}
+ * and logged the first time it's seen for that field, however many paths or operations it shows up in.
+ */
+class FieldMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final Logger log = LoggerFactory.getLogger(FieldMetricsInstrumentation.class);
+
+    private final double sampleRate;
+    private final int nPlusOneThreshold;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, FieldMeters> meters = new ConcurrentHashMap<>();
+
+    FieldMetricsInstrumentation(FieldMetricsProperties properties, MeterRegistry meterRegistry) {
+        this.sampleRate = properties.sampleRate();
+        this.nPlusOneThreshold = properties.nPlusOneThreshold();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        var fieldState = new FieldState();
+        FieldTimings.of(parameters.getExecutionInput().getGraphQLContext()).addListener(fieldState);
+        return fieldState;
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                      InstrumentationExecutionParameters parameters,
+                                                                      InstrumentationState state) {
+        if (state instanceof FieldState fieldState) {
+            fieldState.lists.forEach((path, list) -> {
+                long statements = list.statements.sum();
+                if (statements > nPlusOneThreshold) {
+                    FieldMeters fieldMeters = meters.get(list.coordinates);
+                    fieldMeters.nPlusOne.increment();
+                    if (fieldMeters.reported.compareAndSet(false, true)) {
+                        log.warn("Likely N+1: {} issued {} statements from {} list elements at '{}' in operation {}",
+                                list.coordinates, statements, list.elements.sum(), path, parameters.getOperation());
+                    }
+                }
+            });
+        }
+        return CompletableFuture.completedFuture(executionResult);
+    }
+
+    private FieldMeters fieldMeters(String coordinates) {
+        return new FieldMeters(
+                Timer.builder("graphql.field")
+                        .description("Time to fetch a GraphQL field, sampled")
+                        .tag("field", coordinates)
+                        .register(meterRegistry),
+                DistributionSummary.builder("graphql.field.statements")
+                        .description("SQL statements issued while fetching a GraphQL field, sampled")
+                        .tag("field", coordinates)
+                        .register(meterRegistry),
+                Counter.builder("graphql.field.n-plus-one")
+                        .description("Lists whose elements issued more statements for a field than the threshold")
+                        .tag("field", coordinates)
+                        .register(meterRegistry),
+                new AtomicBoolean());
+    }
+
+    // one per field in the schema, so the reported flags are bounded by it too
+    private record FieldMeters(Timer timer, DistributionSummary statements, Counter nPlusOne, AtomicBoolean reported) {
+    }
+
+    private final class FieldState implements InstrumentationState, FieldTimings.Listener {
+
+        // keyed by the path without list indices, so all elements of a list end up in one entry
+        private final Map<String, ListField> lists = new ConcurrentHashMap<>();
+
+        @Override
+        public void fetched(String coordinates, ResultPath path, long nanos, long statements) {
+            FieldMeters fieldMeters = meters.computeIfAbsent(coordinates, FieldMetricsInstrumentation.this::fieldMeters);
+            fieldMeters.timer.record(nanos, TimeUnit.NANOSECONDS);
+            fieldMeters.statements.record(statements);
+            if (statements > 0 && path.toList().size() > path.getKeysOnly().size()) {
+                add(String.join(".", path.getKeysOnly()), coordinates, statements);
+            }
+        }
+
+        void add(String path, String coordinates, long statements) {
+            ListField list = lists.computeIfAbsent(path, key -> new ListField(coordinates));
+            list.statements.add(statements);
+            list.elements.increment();
+        }
+    }
+
+    private static final class ListField {
+
+        private final String coordinates;
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+
+        ListField(String coordinates) {
+            this.coordinates = coordinates;
+        }
+    }
+}
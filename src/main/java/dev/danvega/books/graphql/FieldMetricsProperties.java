@@ -0,0 +1,13 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param sampleRate fraction of operations whose fields are timed and checked, between 0 and 1
+ * @param nPlusOneThreshold statements the elements of a single list may issue for the same field before it's reported as a likely N+1
+ */
+@ConfigurationProperties("books.graphql.field-metrics")
+public record FieldMetricsProperties(@DefaultValue("0.1") double sampleRate,
+                                     @DefaultValue("5") int nPlusOneThreshold) {
+}
@@ -0,0 +1,53 @@
+package dev.danvega.books.graphql;
+
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+
+/**
+ * Times every field fetch and counts the SQL statements its data fetcher issues, into the
+ * operation's {@link FieldTimings}. This is the only per field timing, the slow operation log
+ * and the sampled field metrics both read it. Introspection fields are left out.
+ */
+class FieldTimingInstrumentation extends SimplePerformantInstrumentation {
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new TimingState(FieldTimings.of(parameters.getExecutionInput().getGraphQLContext()));
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        String typeName = stepInfo.getObjectType().getName();
+        if (!(state instanceof TimingState timingState) || typeName.startsWith("__")) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        String coordinates = typeName + "." + stepInfo.getFieldDefinition().getName();
+        long start = System.nanoTime();
+        long statementsBefore = SqlStatementCounter.currentThread();
+
+        return new InstrumentationContext<>() {
+
+            private volatile long statements;
+
+            @Override
+            public void onDispatched() {
+                statements = SqlStatementCounter.currentThread() - statementsBefore;
+            }
+
+            @Override
+            public void onCompleted(Object result, Throwable ex) {
+                timingState.timings.record(coordinates, stepInfo.getPath(), System.nanoTime() - start, statements);
+            }
+        };
+    }
+
+    private record TimingState(FieldTimings timings) implements InstrumentationState {
+    }
+}
@@ -0,0 +1,85 @@
+package dev.danvega.books.graphql;
+
+import graphql.GraphQLContext;
+import graphql.execution.ResultPath;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time and SQL statements of the fields of one operation, measured once by
+ * {@link FieldTimingInstrumentation} for every instrumentation that needs them. Totals are kept
+ * per {@code Type.field}, so they stay small however long the lists in the response are; a
+ * listener sees each fetch on its own. It lives in the operation's {@link GraphQLContext}.
+ */
+final class FieldTimings {
+
+    private final Map<String, FieldStats> fields = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The timings of the operation the context belongs to, created by whichever instrumentation
+     * asks first.
+     */
+    static FieldTimings of(GraphQLContext context) {
+        return context.computeIfAbsent(FieldTimings.class, key -> new FieldTimings());
+    }
+
+    /**
+     * Has {@code listener} called for every fetch from now on, add it before the operation executes.
+     */
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void record(String coordinates, ResultPath path, long nanos, long statements) {
+        fields.computeIfAbsent(coordinates, key -> new FieldStats()).record(nanos, statements);
+        for (Listener listener : listeners) {
+            listener.fetched(coordinates, path, nanos, statements);
+        }
+    }
+
+    Map<String, FieldStats> fields() {
+        return fields;
+    }
+
+    interface Listener {
+
+        void fetched(String coordinates, ResultPath path, long nanos, long statements);
+    }
+
+    static final class FieldStats {
+
+        private final LongAdder fetches = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder statements = new LongAdder();
+
+        void record(long nanos, long statements) {
+            fetches.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            this.statements.add(statements);
+        }
+
+        long fetches() {
+            return fetches.sum();
+        }
+
+        long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        long maxNanos() {
+            return maxNanos.get();
+        }
+
+        long statements() {
+            return statements.sum();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.query.ScrollSubrange;
+
+/**
+ * Page size limits shared by the list and connection fields.
+ */
+public final class Pagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // plain list fields aren't paginated, but they never return more than this
+    public static final int MAX_LIST_SIZE = 500;
+
+    private Pagination() {
+    }
+
+    /**
+     * Keyset position for the requested page. Without a cursor the first (or, for {@code last},
+     * the final) page is returned, so no request ever falls back to OFFSET.
+     */
+    public static ScrollPosition position(ScrollSubrange subrange) {
+        return subrange.position().orElseGet(() -> {
+            KeysetScrollPosition start = ScrollPosition.keyset();
+            return subrange.forward() ? start : start.backward();
+        });
+    }
+
+    public static Limit limit(ScrollSubrange subrange) {
+        return Limit.of(Math.clamp(subrange.count().orElse(DEFAULT_PAGE_SIZE), 1, MAX_PAGE_SIZE));
+    }
+
+    public static Limit listLimit() {
+        return Limit.of(MAX_LIST_SIZE);
+    }
+}
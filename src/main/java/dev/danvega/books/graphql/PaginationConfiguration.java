@@ -0,0 +1,47 @@
+package dev.danvega.books.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.graphql.data.pagination.CursorEncoder;
+import org.springframework.graphql.data.pagination.CursorStrategy;
+import org.springframework.graphql.data.pagination.EncodingCursorStrategy;
+import org.springframework.graphql.data.query.JsonKeysetCursorStrategy;
+import org.springframework.graphql.data.query.ScrollPositionCursorStrategy;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
+class PaginationConfiguration {
+
+    /**
+     * Same cursor format Spring Boot configures by default, except that the type validator also
+     * accepts numbers. The default one only allows dates and times as keyset values, so a cursor
+     * holding a Long id was written fine but rejected when the client sent it back.
+     */
+    @Bean
+    EncodingCursorStrategy<ScrollPosition> cursorStrategy() {
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfBaseType(Map.class)
+                .allowIfSubType("java.time.")
+                .allowIfSubType(Number.class)
+                .build();
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL);
+
+        CodecConfigurer codecs = ServerCodecConfigurer.create();
+        codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(mapper));
+        codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(mapper));
+
+        var keysetStrategy = new JsonKeysetCursorStrategy(codecs);
+        return CursorStrategy.withEncoder(new ScrollPositionCursorStrategy(keysetStrategy), CursorEncoder.base64());
+    }
+}
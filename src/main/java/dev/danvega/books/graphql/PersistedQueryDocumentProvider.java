@@ -0,0 +1,45 @@
+package dev.danvega.books.graphql;
+
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Looks up operations that carry a {@code persistedQuery} extension by hash, and everything else
+ * by document text, so both kinds of request skip parsing and validation once they've been seen.
+ */
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+    static final String PERSISTED_QUERY_EXTENSION = "persistedQuery";
+
+    private final ApolloPersistedQuerySupport persistedQueries;
+    private final PreparsedDocumentProvider documents;
+    private final boolean persistedOnly;
+
+    public PersistedQueryDocumentProvider(CaffeinePersistedQueryCache persistedQueryCache, PreparsedDocumentProvider documents, boolean persistedOnly) {
+        this.persistedQueries = new ApolloPersistedQuerySupport(persistedQueryCache);
+        this.documents = documents;
+        this.persistedOnly = persistedOnly;
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        if (executionInput.getExtensions().containsKey(PERSISTED_QUERY_EXTENSION)) {
+            return persistedQueries.getDocumentAsync(executionInput, parseAndValidateFunction);
+        }
+        if (persistedOnly) {
+            return CompletableFuture.completedFuture(new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .errorType(ErrorType.ValidationError)
+                    .message("Only persisted queries are allowed")
+                    .build()));
+        }
+        return documents.getDocumentAsync(executionInput, parseAndValidateFunction);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param maximumSize number of persisted documents kept, by hash, before the least used are evicted
+ * @param allowlist location pattern of the documents that are known up front, keyed by their SHA-256 hash
+ * @param allowlistOnly whether to reject every operation that isn't on the allowlist, rather than letting clients register new ones
+ */
+@ConfigurationProperties("books.graphql.persisted-queries")
+public record PersistedQueryProperties(@DefaultValue("1000") int maximumSize,
+                                       @DefaultValue("classpath*:graphql-documents/*.graphql") String allowlist,
+                                       @DefaultValue("false") boolean allowlistOnly) {
+}
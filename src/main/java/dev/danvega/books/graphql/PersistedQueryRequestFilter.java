@@ -0,0 +1,165 @@
+package dev.danvega.books.graphql;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Spring for GraphQL rejects a request without {@code query} before any interceptor sees it, but
+ * a hash-only persisted query has no text to send. This puts graphql-java's placeholder in its
+ * place, which {@link PersistedQueryDocumentProvider} swaps for the cached document.
+ */
+class PersistedQueryRequestFilter extends OncePerRequestFilter {
+
+    private static final byte[] EXTENSION_NAME = ('"' + PersistedQueryDocumentProvider.PERSISTED_QUERY_EXTENSION + '"')
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final TypeReference<Map<String, Object>> BODY_TYPE = new TypeReference<>() { };
+
+    // a hash-only request carries no document, anything this large is a full query sent as is
+    private static final long MAX_HASH_ONLY_BODY_LENGTH = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    PersistedQueryRequestFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getContentLengthLong() > MAX_HASH_ONLY_BODY_LENGTH;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // once read, the body can only be handed on from memory, but it's only copied when rewritten
+        byte[] body = request.getInputStream().readAllBytes();
+        filterChain.doFilter(new BodyRequestWrapper(request, adapt(body)), response);
+    }
+
+    private byte[] adapt(byte[] body) {
+        // only requests that mention the extension are worth parsing
+        if (indexOf(body, EXTENSION_NAME) < 0) {
+            return body;
+        }
+        Map<String, Object> request;
+        try {
+            request = objectMapper.readValue(body, BODY_TYPE);
+        }
+        catch (IOException ex) {
+            // leave it to the GraphQL handler to report
+            return body;
+        }
+        if (!(request.get("extensions") instanceof Map<?, ?> extensions)
+                || !extensions.containsKey(PersistedQueryDocumentProvider.PERSISTED_QUERY_EXTENSION)
+                || (request.get("query") instanceof String query && StringUtils.hasText(query))) {
+            return body;
+        }
+        request.put("query", PersistedQuerySupport.PERSISTED_QUERY_MARKER);
+        try {
+            return objectMapper.writeValueAsBytes(request);
+        }
+        catch (IOException ex) {
+            return body;
+        }
+    }
+
+    private static int indexOf(byte[] source, byte[] target) {
+        outer:
+        for (int i = 0; i <= source.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (source[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static final class BodyRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BodyRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            var in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // everything is already in memory, so it's all available right away
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    }
+                    catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.danvega.books.graphql;
+
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLList;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLOutputType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static cost of an operation, worked out from its normalized fields before anything executes.
+ * <p>
+ * A field costs its weight plus the cost of its selections, times the number of items it
+ * returns. Lists take that number from their {@code first}, {@code last} or {@code limit}
+ * argument, falling back to a configured size, or the list cap for root fields. Connections count their page size once, on
+ * {@code edges}. Since every level multiplies, recursive selections like
+ * {@code authors { books { author { books ... } } } } grow quickly.
+ */
+class QueryCostCalculator {
+
+    private static final List<String> SIZE_ARGUMENTS = List.of("first", "last", "limit");
+
+    private final int defaultListSize;
+    private final Map<String, Integer> listSizes;
+    private final Map<String, Integer> fieldWeights;
+
+    QueryCostCalculator(QueryCostProperties properties) {
+        this.defaultListSize = properties.defaultListSize();
+        this.listSizes = properties.listSizes();
+        this.fieldWeights = properties.fieldWeights();
+    }
+
+    long cost(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        try {
+            return cost(operation.getTopLevelFields(), null, schema);
+        }
+        catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private long cost(List<ExecutableNormalizedField> fields, ExecutableNormalizedField parent, GraphQLSchema schema) {
+        long total = 0;
+        for (ExecutableNormalizedField field : fields) {
+            if (field.getName().startsWith("__")) {
+                // introspection, which tooling like GraphiQL must always be able to run
+                continue;
+            }
+            total = Math.addExact(total, cost(field, parent, schema));
+        }
+        return total;
+    }
+
+    private long cost(ExecutableNormalizedField field, ExecutableNormalizedField parent, GraphQLSchema schema) {
+        GraphQLOutputType type = field.getType(schema);
+        // a field selected on several types of a union is charged like the first of them
+        String coordinate = field.getObjectTypeNames().iterator().next() + "." + field.getName();
+        long weight = fieldWeights.getOrDefault(coordinate, GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(type)) ? 0 : 1);
+        long children = cost(field.getChildren(), field, schema);
+        return Math.multiplyExact(items(field, coordinate, type, parent), Math.addExact(weight, children));
+    }
+
+    private long items(ExecutableNormalizedField field, String coordinate, GraphQLOutputType type, ExecutableNormalizedField parent) {
+        if (isConnection(type)) {
+            // counted on edges, pageInfo is a single object
+            return 1;
+        }
+        if (!(GraphQLTypeUtil.unwrapNonNull(type) instanceof GraphQLList)) {
+            return 1;
+        }
+        if (field.getName().equals("edges") && parent != null) {
+            return Math.clamp(sizeArgument(parent, Pagination.DEFAULT_PAGE_SIZE), 1, Pagination.MAX_PAGE_SIZE);
+        }
+        // root lists without a size argument are only capped by Pagination.MAX_LIST_SIZE
+        int defaultSize = parent == null ? Pagination.MAX_LIST_SIZE : defaultListSize;
+        return sizeArgument(field, listSizes.getOrDefault(coordinate, defaultSize));
+    }
+
+    private static int sizeArgument(ExecutableNormalizedField field, int defaultSize) {
+        for (String name : SIZE_ARGUMENTS) {
+            if (field.getResolvedArguments().get(name) instanceof Integer size) {
+                return Math.max(size, 0);
+            }
+        }
+        return defaultSize;
+    }
+
+    private static boolean isConnection(GraphQLOutputType type) {
+        return GraphQLTypeUtil.unwrapNonNull(type) instanceof GraphQLObjectType objectType
+                && objectType.getName().endsWith("Connection");
+    }
+}
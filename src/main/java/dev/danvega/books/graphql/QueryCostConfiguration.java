@@ -0,0 +1,14 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+class QueryCostConfiguration {
+
+    @Bean
+    QueryCostInstrumentation queryCostInstrumentation(QueryCostProperties properties, MeterRegistry meterRegistry) {
+        return new QueryCostInstrumentation(properties, meterRegistry);
+    }
+}
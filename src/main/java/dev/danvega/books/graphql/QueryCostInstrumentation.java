@@ -0,0 +1,117 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control based on {@link QueryCostCalculator}. Operations over the maximum cost are
+ * rejected outright; the rest are admitted if their cost fits in the budget shared by everything
+ * executing at the same time, and rejected straight away if it doesn't, so no request thread is
+ * parked waiting for capacity. The cost is reported under {@code extensions.cost} and in the
+ * {@code graphql.operation.cost} summary.
+ */
+class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * Key of the operation's cost in the {@link graphql.GraphQLContext}.
+     */
+    static final String COST_KEY = QueryCostInstrumentation.class.getName() + ".cost";
+
+    private final QueryCostCalculator calculator;
+    private final long maximumCost;
+    private final Semaphore capacity;
+    private final Map<String, DistributionSummary> costs;
+
+    QueryCostInstrumentation(QueryCostProperties properties, MeterRegistry meterRegistry) {
+        this.calculator = new QueryCostCalculator(properties);
+        this.maximumCost = properties.maximumCost();
+        this.capacity = new Semaphore(properties.maximumConcurrentCost(), true);
+        this.costs = Map.of(
+                "accepted", costSummary("accepted", meterRegistry),
+                "rejected", costSummary("rejected", meterRegistry),
+                "throttled", costSummary("throttled", meterRegistry));
+    }
+
+    private static DistributionSummary costSummary(String outcome, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("graphql.operation.cost")
+                .description("Static cost of GraphQL operations")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+
+    // completed on every path except an aborted execution, which instrumentExecutionResult covers
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                InstrumentationState state) {
+        return SimpleInstrumentationContext.whenCompleted((result, ex) -> release((CostState) state));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                       InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        long cost = calculator.cost(executionContext.getNormalizedQueryTree().get(), executionContext.getGraphQLSchema());
+        ((CostState) state).cost = cost;
+        executionContext.getGraphQLContext().put(COST_KEY, cost);
+
+        if (cost > maximumCost) {
+            costs.get("rejected").record(cost);
+            throw new AbortExecutionException("Operation cost %d exceeds the maximum of %d".formatted(cost, maximumCost));
+        }
+        int permits = (int) cost;
+        if (!capacity.tryAcquire(permits)) {
+            costs.get("throttled").record(cost);
+            throw new AbortExecutionException("Too many expensive operations are executing, try again later");
+        }
+        ((CostState) state).permits.set(permits);
+        costs.get("accepted").record(cost);
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private void release(CostState state) {
+        int permits = state.permits.getAndSet(0);
+        if (permits > 0) {
+            capacity.release(permits);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                      InstrumentationExecutionParameters parameters,
+                                                                      InstrumentationState state) {
+        release((CostState) state);
+        long cost = ((CostState) state).cost;
+        if (cost < 0) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(executionResult.transform(builder ->
+                builder.addExtension("cost", Map.of("requested", cost, "maximum", maximumCost))));
+    }
+
+    private static final class CostState implements InstrumentationState {
+
+        private volatile long cost = -1;
+        // held from admission until the first of the completion callbacks
+        private final AtomicInteger permits = new AtomicInteger();
+    }
+}
@@ -0,0 +1,26 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * @param maximumCost operations costing more than this are rejected before they execute
+ * @param maximumConcurrentCost total cost of operations allowed to execute at the same time, others are rejected
+ * @param defaultListSize items assumed for a nested list field without a {@code first}, {@code last} or {@code limit} argument
+ * @param listSizes items assumed for specific list fields, keyed by {@code Type.field}
+ * @param fieldWeights cost of specific fields, keyed by {@code Type.field}; objects cost 1 and scalars 0 otherwise
+ */
+@ConfigurationProperties("books.graphql.query-cost")
+public record QueryCostProperties(@DefaultValue("10000") int maximumCost,
+                                  @DefaultValue("50000") int maximumConcurrentCost,
+                                  @DefaultValue("10") int defaultListSize,
+                                  Map<String, Integer> listSizes,
+                                  Map<String, Integer> fieldWeights) {
+
+    public QueryCostProperties {
+        listSizes = listSizes != null ? Map.copyOf(listSizes) : Map.of();
+        fieldWeights = fieldWeights != null ? Map.copyOf(fieldWeights) : Map.of();
+    }
+}
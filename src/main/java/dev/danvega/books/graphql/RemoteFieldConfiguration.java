@@ -0,0 +1,19 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+class RemoteFieldConfiguration {
+
+    @Bean
+    RemoteFieldExecutor remoteFieldExecutor(RemoteFieldProperties properties, MeterRegistry meterRegistry) {
+        return new RemoteFieldExecutor(properties, meterRegistry);
+    }
+
+    @Bean
+    RemoteFieldExceptionResolver remoteFieldExceptionResolver() {
+        return new RemoteFieldExceptionResolver();
+    }
+}
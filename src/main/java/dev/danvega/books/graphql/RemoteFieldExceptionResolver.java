@@ -0,0 +1,30 @@
+package dev.danvega.books.graphql;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+
+import java.util.Map;
+
+/**
+ * Turns a remote field timeout into an error on that field only, the field resolves to null and
+ * everything else in the response is still returned.
+ */
+class RemoteFieldExceptionResolver extends DataFetcherExceptionResolverAdapter {
+
+    static final ErrorClassification TIMEOUT = ErrorClassification.errorClassification("TIMEOUT");
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof RemoteFieldTimeoutException timeout) {
+            return GraphqlErrorBuilder.newError(env)
+                    .errorType(TIMEOUT)
+                    .message(timeout.getMessage())
+                    .extensions(Map.of("field", timeout.getField()))
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+package dev.danvega.books.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLObjectType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the blocking calls behind fields served by other services. Each call gets its own virtual
+ * thread, so a list of parents waits about as long as its slowest call instead of the sum of them,
+ * while a semaphore caps how many calls reach the downstream service at once.
+ * <p>
+ * A call that outlives its field's timeout is interrupted and the field fails with a
+ * {@link RemoteFieldTimeoutException}, leaving the rest of the response intact.
+ */
+public class RemoteFieldExecutor implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("remote-field-", 0).factory());
+    private final RemoteFieldProperties properties;
+    private final Semaphore permits;
+    private final MeterRegistry meterRegistry;
+
+    public RemoteFieldExecutor(RemoteFieldProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.permits = new Semaphore(properties.maxConcurrentCalls(), true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> CompletableFuture<T> fetch(DataFetchingEnvironment env, Callable<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = submit(call, result);
+        // time spent waiting for a permit counts against the timeout as well
+        return withTimeout(env, result, () -> task.cancel(true));
+    }
+
+    /**
+     * Runs a call that isn't made for one field, like a batch shared by several, under the same
+     * cap on concurrent calls. A call that outlives {@code timeout} is interrupted and the future
+     * fails with a {@link TimeoutException}.
+     */
+    public <T> CompletableFuture<T> call(Callable<T> call, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = submit(call, result);
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, ex) -> {
+            if (ex instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+    }
+
+    private <T> Future<?> submit(Callable<T> call, CompletableFuture<T> result) {
+        return executor.submit(() -> {
+            try {
+                permits.acquire();
+                try {
+                    result.complete(call.call());
+                }
+                finally {
+                    permits.release();
+                }
+            }
+            catch (Throwable ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+    }
+
+    /**
+     * Applies the field's timeout to a call that is already asynchronous, for clients that batch
+     * or share calls themselves. Only the field gives up, the call itself carries on.
+     */
+    public <T> CompletableFuture<T> withTimeout(DataFetchingEnvironment env, CompletableFuture<T> call) {
+        return withTimeout(env, call, () -> {});
+    }
+
+    private <T> CompletableFuture<T> withTimeout(DataFetchingEnvironment env, CompletableFuture<T> call, Runnable onTimeout) {
+        String field = ((GraphQLObjectType) env.getParentType()).getName() + "." + env.getField().getName();
+        Duration timeout = properties.timeout(field);
+        // the timeout applies to a copy, a call shared with other fields mustn't fail for all of them
+        CompletableFuture<T> result = new CompletableFuture<>();
+        call.whenComplete((value, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+            else {
+                result.complete(value);
+            }
+        });
+        // unlike a delayed task, the timer is cancelled as soon as the call completes
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).exceptionallyCompose(ex -> {
+            if (ex instanceof TimeoutException) {
+                onTimeout.run();
+                timeouts(field).increment();
+                return CompletableFuture.failedFuture(new RemoteFieldTimeoutException(field, timeout));
+            }
+            return CompletableFuture.failedFuture(ex);
+        });
+    }
+
+    private Counter timeouts(String field) {
+        return Counter.builder("graphql.remote-field.timeouts")
+                .description("Remote field calls abandoned after their timeout")
+                .tag("field", field)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
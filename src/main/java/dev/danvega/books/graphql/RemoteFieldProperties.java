@@ -0,0 +1,26 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param timeout how long a field backed by a remote call waits before it resolves to an error
+ * @param timeouts timeouts of specific fields, keyed by {@code Type.field}
+ * @param maxConcurrentCalls remote calls in flight at the same time across all requests, others queue
+ */
+@ConfigurationProperties("books.graphql.remote-fields")
+public record RemoteFieldProperties(@DefaultValue("2s") Duration timeout,
+                                    Map<String, Duration> timeouts,
+                                    @DefaultValue("128") int maxConcurrentCalls) {
+
+    public RemoteFieldProperties {
+        timeouts = timeouts != null ? Map.copyOf(timeouts) : Map.of();
+    }
+
+    Duration timeout(String field) {
+        return timeouts.getOrDefault(field, timeout);
+    }
+}
@@ -0,0 +1,17 @@
+package dev.danvega.books.graphql;
+
+import java.time.Duration;
+
+public class RemoteFieldTimeoutException extends RuntimeException {
+
+    private final String field;
+
+    RemoteFieldTimeoutException(String field, Duration timeout) {
+        super("%s did not respond within %d ms".formatted(field, timeout.toMillis()));
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,221 @@
+package dev.danvega.books.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.danvega.books.book.BookAddedEvent;
+import dev.danvega.books.book.BooksAddedEvent;
+import dev.danvega.books.review.LeaderboardReconciledEvent;
+import dev.danvega.books.review.ReviewAddedEvent;
+import dev.danvega.books.review.ReviewsAddedEvent;
+import graphql.ExecutionResult;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.language.AstPrinter;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Results of query operations, keyed by the normalized document, operation name and variables.
+ * <p>
+ * While an operation runs, {@link ResponseTagInstrumentation} tags it with what it read: root
+ * fields as {@code Query.books}, entities as {@code Book:1} and list fields of an entity as
+ * {@code Author:1.books}. Writes evict only the entries carrying the tags they affect. A result
+ * computed while an eviction happened is never stored, since it may have read the old data.
+ */
+public class ResponseCache {
+
+    private final Cache<Key, Entry> cache;
+    private final Cache<String, String> normalizedDocuments;
+    private final Map<String, Set<Key>> keysByTag = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(int maximumSize, Duration timeToLive) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        this.normalizedDocuments = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Returns the cache key for the request, or {@code null} if it can't be cached because the
+     * document doesn't parse.
+     */
+    @Nullable
+    public Key keyFor(WebGraphQlRequest request) {
+        String document = request.getDocument();
+        if (PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(document)) {
+            // hash-only persisted query, the hash already identifies the document
+            if (request.getExtensions().get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                    && persistedQuery.get("sha256Hash") instanceof String hash) {
+                return new Key("sha256:" + hash, request.getOperationName(), request.getVariables());
+            }
+            return null;
+        }
+        String normalized = normalizedDocuments.get(document, ResponseCache::normalize);
+        return normalized != null ? new Key(normalized, request.getOperationName(), request.getVariables()) : null;
+    }
+
+    @Nullable
+    private static String normalize(String document) {
+        try {
+            return AstPrinter.printAstCompact(Parser.parse(document));
+        }
+        catch (InvalidSyntaxException ex) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public ExecutionResult get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null ? entry.result() : null;
+    }
+
+    public Tags startTagging() {
+        return new Tags(generation.get());
+    }
+
+    public void put(Key key, ExecutionResult result, Tags tags) {
+        if (tags.generation != generation.get()) {
+            return;
+        }
+        Set<String> entryTags = Set.copyOf(tags.tags);
+        // stored before it's indexed, so the removal of an older entry for the key can see it's been replaced
+        cache.put(key, new Entry(result, entryTags));
+        for (String tag : entryTags) {
+            // under the tag's lock, a removal can't drop the set while the key is added to it
+            keysByTag.compute(tag, (t, keys) -> {
+                Set<Key> indexed = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                indexed.add(key);
+                return indexed;
+            });
+        }
+        // an eviction may have run between the check above and indexing the tags
+        if (tags.generation != generation.get()) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void evict(String... tags) {
+        generation.incrementAndGet();
+        for (String tag : tags) {
+            Set<Key> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAdded(BookAddedEvent event) {
+        onBooksAdded(new BooksAddedEvent(List.of(event)));
+    }
+
+    // a single eviction pass however many books were added
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksAdded(BooksAddedEvent event) {
+        Set<String> tags = new LinkedHashSet<>(List.of("Query.books", "Query.booksConnection", "Query.search", "Query.suggest"));
+        for (BookAddedEvent book : event.books()) {
+            tags.add("Book:" + book.bookId());
+            tags.add("Author:" + book.authorId() + ".books");
+            tags.add("Author:" + book.authorId() + ".booksWithDelay");
+        }
+        evict(tags.toArray(String[]::new));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewAdded(ReviewAddedEvent event) {
+        onReviewsAdded(new ReviewsAddedEvent(List.of(event)));
+    }
+
+    // a single eviction pass however many reviews were added
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewsAdded(ReviewsAddedEvent event) {
+        Set<String> tags = new LinkedHashSet<>(List.of("Query.reviews", "Query.reviewsConnection",
+                "Query.topRatedBooks", "Query.mostReviewedBooks"));
+        for (ReviewAddedEvent review : event.reviews()) {
+            Long bookId = review.review().bookId();
+            // the book's rating fields are cached under its entity tag
+            tags.add("Book:" + bookId);
+            tags.add("Book:" + bookId + ".reviews");
+        }
+        evict(tags.toArray(String[]::new));
+    }
+
+    @EventListener
+    public void onLeaderboardReconciled(LeaderboardReconciledEvent event) {
+        evict("Query.topRatedBooks", "Query.mostReviewedBooks");
+    }
+
+    private void onRemoval(@Nullable Key key, @Nullable Entry entry, RemovalCause cause) {
+        if (key == null || entry == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        for (String tag : entry.tags()) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                // removals are delivered asynchronously, by then the key may hold a newer entry that must stay indexed
+                if (!cache.asMap().containsKey(key)) {
+                    keys.remove(key);
+                }
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    public Cache<Key, Entry> getCache() {
+        return cache;
+    }
+
+    public record Key(String document, @Nullable String operationName, Map<String, Object> variables) {
+    }
+
+    public record Entry(ExecutionResult result, Set<String> tags) {
+    }
+
+    /**
+     * What a single operation read, collected while it executes.
+     */
+    public static final class Tags {
+
+        private final long generation;
+        private final Set<String> tags = ConcurrentHashMap.newKeySet();
+        private volatile boolean cacheable;
+
+        private Tags(long generation) {
+            this.generation = generation;
+        }
+
+        public void add(String tag) {
+            tags.add(tag);
+        }
+
+        public void setCacheable(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        public List<String> getTags() {
+            return List.copyOf(tags);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "books.graphql.response-cache", name = "enabled", havingValue = "true")
+class ResponseCacheConfiguration {
+
+    @Bean
+    ResponseCache responseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        var responseCache = new ResponseCache(properties.maximumSize(), properties.timeToLive());
+        CaffeineCacheMetrics.monitor(meterRegistry, responseCache.getCache(), "graphql.responses");
+        return responseCache;
+    }
+
+    @Bean
+    ResponseCacheInterceptor responseCacheInterceptor(ResponseCache responseCache) {
+        return new ResponseCacheInterceptor(responseCache);
+    }
+
+    @Bean
+    ResponseTagInstrumentation responseTagInstrumentation(EntityManagerFactory entityManagerFactory) {
+        return new ResponseTagInstrumentation(entityManagerFactory);
+    }
+}
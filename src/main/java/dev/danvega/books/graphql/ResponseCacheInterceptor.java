@@ -0,0 +1,42 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Answers repeated queries from the {@link ResponseCache} without executing them, and stores
+ * the results of successful queries that missed.
+ */
+class ResponseCacheInterceptor implements WebGraphQlInterceptor {
+
+    private final ResponseCache responseCache;
+
+    ResponseCacheInterceptor(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        ResponseCache.Key key = responseCache.keyFor(request);
+        if (key == null) {
+            return chain.next(request);
+        }
+        ExecutionResult cached = responseCache.get(key);
+        if (cached != null) {
+            return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(request.toExecutionInput(), cached)));
+        }
+        ResponseCache.Tags tags = responseCache.startTagging();
+        request.configureExecutionInput((input, builder) -> builder.graphQLContext(Map.of(ResponseCache.Tags.class, tags)).build());
+        return chain.next(request).doOnNext(response -> {
+            if (tags.isCacheable() && response.isValid() && response.getErrors().isEmpty()) {
+                responseCache.put(key, response.getExecutionResult(), tags);
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled whether query results are cached at all, off unless explicitly turned on
+ * @param maximumSize number of results kept before the least used are evicted
+ * @param timeToLive how long a result is served before it's recomputed, even if nothing invalidated it
+ */
+@ConfigurationProperties("books.graphql.response-cache")
+public record ResponseCacheProperties(@DefaultValue("false") boolean enabled,
+                                      @DefaultValue("500") int maximumSize,
+                                      @DefaultValue("5m") Duration timeToLive) {
+}
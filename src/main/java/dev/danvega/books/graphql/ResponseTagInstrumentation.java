@@ -0,0 +1,107 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.FetchedValue;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.GraphQLTypeUtil;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.metamodel.Type;
+import org.hibernate.Hibernate;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tags operations that run with {@link ResponseCache.Tags} in their context with the root
+ * fields, entities and entity list fields they read. Operations without it aren't touched.
+ */
+class ResponseTagInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final String QUERY_TYPE = "Query";
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Set<Class<?>> entityTypes;
+
+    ResponseTagInstrumentation(EntityManagerFactory entityManagerFactory) {
+        this.persistenceUnitUtil = entityManagerFactory.getPersistenceUnitUtil();
+        this.entityTypes = entityManagerFactory.getMetamodel().getEntities().stream()
+                .map(Type::getJavaType)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                       InstrumentationState state) {
+        var executionContext = parameters.getExecutionContext();
+        ResponseCache.Tags tags = executionContext.getGraphQLContext().get(ResponseCache.Tags.class);
+        if (tags != null) {
+            tags.setCacheable(executionContext.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY);
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldCompletion(InstrumentationFieldCompleteParameters parameters, InstrumentationState state) {
+        ResponseCache.Tags tags = parameters.getExecutionContext().getGraphQLContext().get(ResponseCache.Tags.class);
+        if (tags == null) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        String fieldName = stepInfo.getFieldDefinition().getName();
+        Object value = parameters.getFetchedValue();
+        if (value instanceof FetchedValue fetchedValue) {
+            value = fetchedValue.getFetchedValue();
+        }
+
+        if (QUERY_TYPE.equals(stepInfo.getObjectType().getName())) {
+            tags.add(QUERY_TYPE + "." + fieldName);
+            // lookups by id depend on that entity even when it doesn't exist yet
+            if (stepInfo.getArgument("id") instanceof Number id) {
+                tags.add(GraphQLTypeUtil.unwrapAll(stepInfo.getType()).getName() + ":" + id);
+            }
+        }
+        else if (value instanceof Iterable<?>) {
+            String source = entityTag(parameters.getExecutionStrategyParameters().getSource());
+            if (source != null) {
+                tags.add(source + "." + fieldName);
+            }
+        }
+
+        if (value instanceof Iterable<?> items) {
+            for (Object item : items) {
+                addEntityTag(tags, item);
+            }
+        }
+        else {
+            addEntityTag(tags, value);
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    private void addEntityTag(ResponseCache.Tags tags, Object value) {
+        String tag = entityTag(value);
+        if (tag != null) {
+            tags.add(tag);
+        }
+    }
+
+    private String entityTag(Object value) {
+        if (value == null) {
+            return null;
+        }
+        // getClassLazy doesn't initialize proxies, and neither does reading their identifier
+        Class<?> type = Hibernate.getClassLazy(value);
+        if (!entityTypes.contains(type)) {
+            return null;
+        }
+        return type.getSimpleName() + ":" + persistenceUnitUtil.getIdentifier(value);
+    }
+}
@@ -0,0 +1,30 @@
+package dev.danvega.books.graphql;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An operation that took longer than the threshold, with the time and statements of each field.
+ *
+ * @param document the operation's document with its literals blanked out, {@code null} if it didn't pass validation
+ * @param cost the static cost from {@link QueryCostInstrumentation}, if it got that far
+ * @param statements SQL statements issued by the fields' data fetchers
+ * @param fields per field totals, slowest first
+ */
+public record SlowOperation(Instant completedAt,
+                            String operationName,
+                            String document,
+                            Map<String, Object> variables,
+                            double durationMillis,
+                            Long cost,
+                            long statements,
+                            int errors,
+                            List<FieldTiming> fields) {
+
+    /**
+     * @param fetches number of times the field was fetched, once per element of a list
+     */
+    public record FieldTiming(String field, long fetches, double totalMillis, double maxMillis, long statements) {
+    }
+}
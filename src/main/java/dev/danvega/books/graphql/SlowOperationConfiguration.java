@@ -0,0 +1,23 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+class SlowOperationConfiguration {
+
+    @Bean
+    SlowOperationLog slowOperationLog(SlowOperationProperties properties) {
+        return new SlowOperationLog(properties.capacity());
+    }
+
+    @Bean
+    SlowOperationInstrumentation slowOperationInstrumentation(SlowOperationProperties properties, SlowOperationLog log) {
+        return new SlowOperationInstrumentation(properties, log);
+    }
+
+    @Bean
+    SlowOperationsEndpoint slowOperationsEndpoint(SlowOperationLog log) {
+        return new SlowOperationsEndpoint(log);
+    }
+}
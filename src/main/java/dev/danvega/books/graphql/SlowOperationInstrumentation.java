@@ -0,0 +1,140 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.language.AstPrinter;
+import graphql.language.AstTransformer;
+import graphql.language.Document;
+import graphql.language.FloatValue;
+import graphql.language.IntValue;
+import graphql.language.Node;
+import graphql.language.NodeVisitor;
+import graphql.language.NodeVisitorStub;
+import graphql.language.StringValue;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+import graphql.util.TreeTransformerUtil;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands operations slower than the threshold to the {@link SlowOperationLog}, with the per field
+ * totals {@link FieldTimingInstrumentation} collected for them. The document is kept with its
+ * number and string literals blanked out, like the variables that aren't visible, so neither leaks what a client
+ * searched for; only operations that got past validation have one.
+ */
+class SlowOperationInstrumentation extends SimplePerformantInstrumentation {
+
+    private static final String REDACTED = "[redacted]";
+
+    // numbers and strings written into the document become 0 and "", variable names stay as they are
+    private static final NodeVisitor BLANK_LITERALS = new NodeVisitorStub() {
+
+        @Override
+        public TraversalControl visitStringValue(StringValue node, TraverserContext<Node> context) {
+            return TreeTransformerUtil.changeNode(context, StringValue.of(""));
+        }
+
+        @Override
+        public TraversalControl visitIntValue(IntValue node, TraverserContext<Node> context) {
+            return TreeTransformerUtil.changeNode(context, IntValue.of(0));
+        }
+
+        @Override
+        public TraversalControl visitFloatValue(FloatValue node, TraverserContext<Node> context) {
+            return TreeTransformerUtil.changeNode(context, FloatValue.of(0));
+        }
+    };
+
+    private final long thresholdNanos;
+    private final Set<String> visibleVariables;
+    private final SlowOperationLog log;
+
+    SlowOperationInstrumentation(SlowOperationProperties properties, SlowOperationLog log) {
+        this.thresholdNanos = properties.threshold().toNanos();
+        this.visibleVariables = Set.copyOf(properties.visibleVariables());
+        this.log = log;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new OperationState(System.nanoTime());
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (state instanceof OperationState operationState) {
+            operationState.document = parameters.getExecutionContext().getDocument();
+        }
+        return SimpleInstrumentationContext.noOp();
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                      InstrumentationExecutionParameters parameters,
+                                                                      InstrumentationState state) {
+        if (state instanceof OperationState operationState) {
+            long duration = System.nanoTime() - operationState.start;
+            if (duration >= thresholdNanos) {
+                log.add(capture(executionResult, parameters, operationState, duration));
+            }
+        }
+        return CompletableFuture.completedFuture(executionResult);
+    }
+
+    private SlowOperation capture(ExecutionResult result, InstrumentationExecutionParameters parameters,
+                                  OperationState state, long duration) {
+        List<SlowOperation.FieldTiming> fields = FieldTimings.of(parameters.getGraphQLContext()).fields().entrySet().stream()
+                .map(entry -> timing(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(SlowOperation.FieldTiming::totalMillis).reversed())
+                .toList();
+        long statements = fields.stream().mapToLong(SlowOperation.FieldTiming::statements).sum();
+        Long cost = parameters.getGraphQLContext().get(QueryCostInstrumentation.COST_KEY);
+        return new SlowOperation(Instant.now(), parameters.getOperation(), redact(state.document),
+                redact(parameters.getVariables()), millis(duration), cost, statements, result.getErrors().size(), fields);
+    }
+
+    private static String redact(Document document) {
+        return document != null ? AstPrinter.printAst(new AstTransformer().transform(document, BLANK_LITERALS)) : null;
+    }
+
+    private static SlowOperation.FieldTiming timing(String field, FieldTimings.FieldStats stats) {
+        return new SlowOperation.FieldTiming(field, stats.fetches(), millis(stats.totalNanos()), millis(stats.maxNanos()),
+                stats.statements());
+    }
+
+    private Map<String, Object> redact(Map<String, Object> variables) {
+        Map<String, Object> redacted = new LinkedHashMap<>();
+        variables.forEach((name, value) -> redacted.put(name, visibleVariables.contains(name) ? value : REDACTED));
+        return redacted;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static final class OperationState implements InstrumentationState {
+
+        private final long start;
+        // set once the operation is validated, read after it completed
+        private volatile Document document;
+
+        OperationState(long start) {
+            this.start = start;
+        }
+    }
+}
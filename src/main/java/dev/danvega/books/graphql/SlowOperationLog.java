@@ -0,0 +1,46 @@
+package dev.danvega.books.graphql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size ring buffer of the most recent slow operations. Adding never blocks, so a burst of
+ * slow requests only overwrites older entries.
+ */
+class SlowOperationLog {
+
+    private final AtomicReferenceArray<SlowOperation> operations;
+    private final AtomicLong next = new AtomicLong();
+
+    SlowOperationLog(int capacity) {
+        this.operations = new AtomicReferenceArray<>(capacity);
+    }
+
+    void add(SlowOperation operation) {
+        operations.set((int) (next.getAndIncrement() % operations.length()), operation);
+    }
+
+    /**
+     * The captured operations, slowest first.
+     */
+    List<SlowOperation> slowest() {
+        List<SlowOperation> snapshot = new ArrayList<>(operations.length());
+        for (int i = 0; i < operations.length(); i++) {
+            SlowOperation operation = operations.get(i);
+            if (operation != null) {
+                snapshot.add(operation);
+            }
+        }
+        snapshot.sort(Comparator.comparingDouble(SlowOperation::durationMillis).reversed());
+        return snapshot;
+    }
+
+    void clear() {
+        for (int i = 0; i < operations.length(); i++) {
+            operations.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * @param threshold operations taking at least this long are captured
+ * @param capacity number of captured operations kept, older ones are overwritten
+ * @param visibleVariables variables whose values are kept, all others are redacted
+ */
+@ConfigurationProperties("books.graphql.slow-operations")
+public record SlowOperationProperties(@DefaultValue("500ms") Duration threshold,
+                                      @DefaultValue("50") int capacity,
+                                      @DefaultValue({"id", "first", "last", "after", "before", "limit"}) Set<String> visibleVariables) {
+}
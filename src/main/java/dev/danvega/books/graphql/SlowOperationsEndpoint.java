@@ -0,0 +1,31 @@
+package dev.danvega.books.graphql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/slowoperations} lists the recent slow operations, slowest first, a DELETE
+ * clears them.
+ */
+@Endpoint(id = "slowoperations")
+public class SlowOperationsEndpoint {
+
+    private final SlowOperationLog log;
+
+    SlowOperationsEndpoint(SlowOperationLog log) {
+        this.log = log;
+    }
+
+    @ReadOperation
+    public List<SlowOperation> slowOperations() {
+        return log.slowest();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        log.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package dev.danvega.books.graphql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the statements Hibernate prepares, in total and for the current thread, and optionally
+ * captures their SQL. Registered with Hibernate by {@link FieldMetricsConfiguration}.
+ * <p>
+ * Statements are attributed to the thread that prepares them, so work handed to another thread,
+ * like a data loader dispatched later, isn't counted against the caller.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final LongAdder total = new LongAdder();
+    private static final ThreadLocal<long[]> threadCount = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Capture> captures = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        total.increment();
+        threadCount.get()[0]++;
+        for (Capture capture = captures.get(); capture != null; capture = capture.parent) {
+            capture.statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Statements prepared by all threads since startup.
+     */
+    public static long total() {
+        return total.sum();
+    }
+
+    /**
+     * Statements prepared by the current thread since it started, only meaningful as a difference.
+     */
+    public static long currentThread() {
+        return threadCount.get()[0];
+    }
+
+    /**
+     * Starts recording the SQL of statements prepared by the current thread until the capture is
+     * closed. Captures can be nested, the outer one sees the statements of the inner one as well.
+     */
+    public static Capture capture() {
+        var capture = new Capture(captures.get());
+        captures.set(capture);
+        return capture;
+    }
+
+    public static final class Capture implements AutoCloseable {
+
+        private final Capture parent;
+        private final List<String> statements = new ArrayList<>();
+
+        private Capture(Capture parent) {
+            this.parent = parent;
+        }
+
+        public List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        @Override
+        public void close() {
+            if (captures.get() == this) {
+                if (parent != null) {
+                    captures.set(parent);
+                }
+                else {
+                    captures.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+class WebSocketConfiguration {
+
+    // Spring for GraphQL allows a single WebSocketGraphQlInterceptor
+    @Bean
+    WebSocketConnectionMetrics webSocketConnectionMetrics(MeterRegistry meterRegistry) {
+        return new WebSocketConnectionMetrics(meterRegistry);
+    }
+}
@@ -0,0 +1,36 @@
+package dev.danvega.books.graphql;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.graphql.server.WebSocketGraphQlInterceptor;
+import org.springframework.graphql.server.WebSocketSessionInfo;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks initialized GraphQL WebSocket connections in the {@code graphql.websocket.connections} gauge.
+ */
+class WebSocketConnectionMetrics implements WebSocketGraphQlInterceptor {
+
+    private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+
+    WebSocketConnectionMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("graphql.websocket.connections", sessions, Set::size)
+                .description("Open GraphQL WebSocket connections")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Object> handleConnectionInitialization(WebSocketSessionInfo sessionInfo, Map<String, Object> payload) {
+        sessions.add(sessionInfo.getId());
+        return Mono.empty();
+    }
+
+    @Override
+    public void handleConnectionClosed(WebSocketSessionInfo sessionInfo, int statusCode, Map<String, Object> payload) {
+        sessions.remove(sessionInfo.getId());
+    }
+}
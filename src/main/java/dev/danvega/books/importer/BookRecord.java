@@ -0,0 +1,31 @@
+package dev.danvega.books.importer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One book read from an import file, with the name of its author and any reviews.
+ */
+record BookRecord(String title, String author, List<ReviewRecord> reviews) {
+
+    BookRecord {
+        reviews = reviews != null ? reviews : List.of();
+    }
+
+    /**
+     * This record without the reviews whose rating is missing or out of range.
+     */
+    BookRecord withValidReviews() {
+        return new BookRecord(title, author, reviews.stream().filter(ReviewRecord::hasValidRating).toList());
+    }
+
+    record ReviewRecord(Integer rating, String comment, String reviewerName, Boolean verified, LocalDateTime createdAt) {
+
+        /**
+         * Whether the rating is set and between 1 and 5 stars, the same rule {@code addReview} applies.
+         */
+        boolean hasValidRating() {
+            return rating != null && rating >= 1 && rating <= 5;
+        }
+    }
+}
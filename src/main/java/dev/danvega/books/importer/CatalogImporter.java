@@ -0,0 +1,297 @@
+package dev.danvega.books.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.danvega.books.author.Author;
+import dev.danvega.books.book.Book;
+import dev.danvega.books.book.BookAddedEvent;
+import dev.danvega.books.book.BooksAddedEvent;
+import dev.danvega.books.importer.BookRecord.ReviewRecord;
+import dev.danvega.books.review.Review;
+import dev.danvega.books.review.ReviewAddedEvent;
+import dev.danvega.books.review.ReviewsAddedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Imports books, their authors and reviews from NDJSON or CSV files of any size.
+ * <p>
+ * A reader thread parses the file into batches and hands them to the calling thread through a
+ * bounded queue, so parsing runs ahead of writing by at most {@code queueCapacity} batches and
+ * memory stays flat. Each batch is written in its own transaction, after which a checkpoint
+ * with the file offset is saved. A failed import resumes from the last checkpoint when it's
+ * started again; a batch that committed just before a crash may then be written twice.
+ * <p>
+ * Authors are matched by name. Ids of recently seen names are kept in a bounded LRU map, the
+ * rest are looked up once per batch and created when they don't exist.
+ */
+@Service
+public class CatalogImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImporter.class);
+    private static final int PROGRESS_INTERVAL = 10;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher events;
+    private final ImportProperties properties;
+
+    public CatalogImporter(TransactionTemplate transactionTemplate, ObjectMapper objectMapper, ApplicationEventPublisher events,
+                           ImportProperties properties) {
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.events = events;
+        this.properties = properties;
+    }
+
+    public ImportReport importFile(Path file) {
+        ImportFormat format = ImportFormat.of(file);
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(file);
+        long resumedFrom = checkpoint.offset();
+        if (resumedFrom > 0) {
+            log.info("Resuming import of {} at byte {} after {} books", file, resumedFrom, checkpoint.books());
+        }
+
+        BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        Thread reader = Thread.ofPlatform()
+                .name("catalog-import-reader")
+                .daemon()
+                .start(() -> read(file, format, resumedFrom, queue));
+
+        Map<String, Long> authorIds = new LruMap<>(properties.authorCacheSize());
+        long start = System.nanoTime();
+        long rows = 0;
+        int batches = 0;
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk instanceof ReadFailure failure) {
+                    throw failure.exception();
+                }
+                if (chunk instanceof EndOfFile) {
+                    break;
+                }
+                Batch batch = (Batch) chunk;
+                BatchResult result = transactionTemplate.execute(status -> write(batch.records(), authorIds));
+                checkpoint = checkpoint.advance(batch.endOffset(), result.books(), result.reviews(), result.authors(), batch.skipped(),
+                        batch.skippedReviews());
+                checkpoint.save(file);
+                rows += result.books() + result.reviews();
+                if (++batches % PROGRESS_INTERVAL == 0) {
+                    log.info("Imported {} books and {} reviews, {} rows/s", checkpoint.books(), checkpoint.reviews(),
+                            Math.round(rowsPerSecond(rows, start)));
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import of " + file + " was interrupted", ex);
+        }
+        finally {
+            reader.interrupt();
+        }
+
+        ImportCheckpoint.delete(file);
+        var report = new ImportReport(file, resumedFrom, checkpoint.books(), checkpoint.reviews(), checkpoint.authors(),
+                checkpoint.skipped(), checkpoint.skippedReviews(), Duration.ofNanos(System.nanoTime() - start), rowsPerSecond(rows, start));
+        log.info("Imported {}: {} books, {} reviews, {} new authors, {} lines and {} reviews skipped in {} ({} rows/s)", file,
+                report.books(), report.reviews(), report.authorsCreated(), report.skippedLines(), report.skippedReviews(),
+                report.elapsed(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private void read(Path file, ImportFormat format, long offset, BlockingQueue<Chunk> queue) {
+        try (var lines = new ChannelLineReader(file, offset, properties.bufferSize())) {
+            List<BookRecord> records = new ArrayList<>(properties.batchSize());
+            int skipped = 0;
+            int skippedReviews = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                BookRecord record;
+                try {
+                    record = format.parse(line, objectMapper);
+                }
+                catch (IOException ex) {
+                    log.warn("Skipping unreadable line ending at byte {}: {}", lines.offset(), ex.getMessage());
+                    skipped++;
+                    continue;
+                }
+                if (record == null) {
+                    continue;
+                }
+                if (!StringUtils.hasText(record.title()) || !StringUtils.hasText(record.author())) {
+                    log.warn("Skipping line ending at byte {}: title and author are required", lines.offset());
+                    skipped++;
+                    continue;
+                }
+                BookRecord valid = record.withValidReviews();
+                int invalidReviews = record.reviews().size() - valid.reviews().size();
+                if (invalidReviews > 0) {
+                    log.warn("Skipping {} review(s) on line ending at byte {}: rating must be between 1 and 5", invalidReviews,
+                            lines.offset());
+                    skippedReviews += invalidReviews;
+                }
+                records.add(valid);
+                if (records.size() == properties.batchSize()) {
+                    queue.put(new Batch(records, lines.offset(), skipped, skippedReviews));
+                    records = new ArrayList<>(properties.batchSize());
+                    skipped = 0;
+                    skippedReviews = 0;
+                }
+            }
+            if (!records.isEmpty() || skipped > 0) {
+                queue.put(new Batch(records, lines.offset(), skipped, skippedReviews));
+            }
+            queue.put(new EndOfFile());
+        }
+        catch (InterruptedException ex) {
+            // the writer gave up, nobody is waiting for the rest
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException ex) {
+            fail(queue, new UncheckedIOException("Failed to read " + file, ex));
+        }
+        catch (RuntimeException ex) {
+            fail(queue, ex);
+        }
+    }
+
+    private static void fail(BlockingQueue<Chunk> queue, RuntimeException ex) {
+        try {
+            queue.put(new ReadFailure(ex));
+        }
+        catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BatchResult write(List<BookRecord> records, Map<String, Long> authorIds) {
+        Map<String, Long> batchAuthorIds = new HashMap<>();
+        int authorsCreated = resolveAuthors(records, authorIds, batchAuthorIds);
+        List<BookAddedEvent> added = new ArrayList<>(records.size());
+        List<ReviewAddedEvent> reviewsAdded = new ArrayList<>();
+        for (BookRecord record : records) {
+            var book = new Book();
+            book.setTitle(record.title());
+            book.setAuthor(entityManager.getReference(Author.class, batchAuthorIds.get(record.author())));
+            entityManager.persist(book);
+            for (ReviewRecord reviewRecord : record.reviews()) {
+                var review = new Review();
+                review.setRating(reviewRecord.rating());
+                review.setComment(reviewRecord.comment());
+                review.setReviewerName(reviewRecord.reviewerName());
+                review.setVerified(reviewRecord.verified() != null ? reviewRecord.verified() : Boolean.FALSE);
+                review.setCreatedAt(reviewRecord.createdAt());
+                review.setBook(book);
+                entityManager.persist(review);
+                reviewsAdded.add(new ReviewAddedEvent(review));
+            }
+            added.add(new BookAddedEvent(book.getId(), book.getTitle(), book.authorId()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // handled once the batch's transaction commits
+        events.publishEvent(new BooksAddedEvent(added));
+        if (!reviewsAdded.isEmpty()) {
+            events.publishEvent(new ReviewsAddedEvent(reviewsAdded));
+        }
+        return new BatchResult(records.size(), reviewsAdded.size(), authorsCreated);
+    }
+
+    /**
+     * Puts the id of every author of the batch in {@code resolved}, creating the ones that don't
+     * exist, and returns how many were created.
+     */
+    private int resolveAuthors(List<BookRecord> records, Map<String, Long> authorIds, Map<String, Long> resolved) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (BookRecord record : records) {
+            Long id = authorIds.get(record.author());
+            if (id != null) {
+                resolved.put(record.author(), id);
+            }
+            else {
+                missing.add(record.author());
+            }
+        }
+        if (!missing.isEmpty()) {
+            // names aren't unique, the oldest author with a name wins
+            entityManager.createQuery("select a.id as id, a.name as name from Author a where a.name in :names order by a.id", Tuple.class)
+                    .setParameter("names", missing)
+                    .getResultList()
+                    .forEach(row -> resolved.putIfAbsent(row.get("name", String.class), row.get("id", Long.class)));
+        }
+        int created = 0;
+        for (String name : missing) {
+            if (!resolved.containsKey(name)) {
+                var author = new Author();
+                author.setName(name);
+                entityManager.persist(author);
+                resolved.put(name, author.getId());
+                created++;
+            }
+        }
+        authorIds.putAll(resolved);
+        return created;
+    }
+
+    private static double rowsPerSecond(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? rows * 1_000_000_000d / elapsed : 0;
+    }
+
+    private sealed interface Chunk permits Batch, EndOfFile, ReadFailure {
+    }
+
+    private record Batch(List<BookRecord> records, long endOffset, int skipped, int skippedReviews) implements Chunk {
+    }
+
+    private record EndOfFile() implements Chunk {
+    }
+
+    private record ReadFailure(RuntimeException exception) implements Chunk {
+    }
+
+    private record BatchResult(int books, int reviews, int authors) {
+    }
+
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maximumSize;
+
+        LruMap(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maximumSize;
+        }
+    }
+}
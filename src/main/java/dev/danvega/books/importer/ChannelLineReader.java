@@ -0,0 +1,79 @@
+package dev.danvega.books.importer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads UTF-8 lines from a file through a fixed size buffer, keeping track of the byte offset
+ * after the last line returned so a later run can continue from exactly there. Only the
+ * current line is held in memory, however big the file is.
+ */
+class ChannelLineReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private long offset;
+
+    ChannelLineReader(Path file, long offset, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(offset);
+        this.offset = offset;
+        this.buffer = ByteBuffer.allocate(bufferSize).flip();
+    }
+
+    /**
+     * Returns the next line without its line terminator, or {@code null} at the end of the file.
+     */
+    String readLine() throws IOException {
+        line.reset();
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read == -1) {
+                    return line.size() > 0 ? decodeLine() : null;
+                }
+            }
+            byte[] bytes = buffer.array();
+            int start = buffer.position();
+            int end = buffer.limit();
+            for (int i = start; i < end; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, start, i - start);
+                    buffer.position(i + 1);
+                    offset += i + 1 - start;
+                    return decodeLine();
+                }
+            }
+            line.write(bytes, start, end - start);
+            buffer.position(end);
+            offset += end - start;
+        }
+    }
+
+    private String decodeLine() {
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte offset right after the last line returned by {@link #readLine()}.
+     */
+    long offset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
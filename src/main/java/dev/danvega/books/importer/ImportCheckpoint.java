@@ -0,0 +1,80 @@
+package dev.danvega.books.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * How far an import got: the byte offset after the last committed batch and the totals up to
+ * there. It's stored next to the import file and replaced atomically after every batch.
+ */
+record ImportCheckpoint(long offset, long books, long reviews, long authors, long skipped, long skippedReviews) {
+
+    static final ImportCheckpoint START = new ImportCheckpoint(0, 0, 0, 0, 0, 0);
+
+    static Path pathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".checkpoint");
+    }
+
+    static ImportCheckpoint load(Path file) {
+        Path path = pathFor(file);
+        if (!Files.exists(path)) {
+            return START;
+        }
+        var properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read checkpoint " + path, ex);
+        }
+        return new ImportCheckpoint(
+                Long.parseLong(properties.getProperty("offset", "0")),
+                Long.parseLong(properties.getProperty("books", "0")),
+                Long.parseLong(properties.getProperty("reviews", "0")),
+                Long.parseLong(properties.getProperty("authors", "0")),
+                Long.parseLong(properties.getProperty("skipped", "0")),
+                Long.parseLong(properties.getProperty("skippedReviews", "0")));
+    }
+
+    void save(Path file) {
+        Path path = pathFor(file);
+        var properties = new Properties();
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("books", Long.toString(books));
+        properties.setProperty("reviews", Long.toString(reviews));
+        properties.setProperty("authors", Long.toString(authors));
+        properties.setProperty("skipped", Long.toString(skipped));
+        properties.setProperty("skippedReviews", Long.toString(skippedReviews));
+        try {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write checkpoint " + path, ex);
+        }
+    }
+
+    static void delete(Path file) {
+        try {
+            Files.deleteIfExists(pathFor(file));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    ImportCheckpoint advance(long offset, long books, long reviews, long authors, long skipped, long skippedReviews) {
+        return new ImportCheckpoint(offset, this.books + books, this.reviews + reviews, this.authors + authors, this.skipped + skipped,
+                this.skippedReviews + skippedReviews);
+    }
+}
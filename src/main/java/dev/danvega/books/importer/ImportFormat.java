@@ -0,0 +1,87 @@
+package dev.danvega.books.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Line formats the importer understands. NDJSON has one book per line, e.g.
+ * <pre>{"title": "Spring in Action", "author": "Craig Walls", "reviews": [{"rating": 5, "reviewerName": "Ann"}]}</pre>
+ * CSV has a {@code title,author} header and no reviews; fields containing commas are quoted.
+ */
+enum ImportFormat {
+
+    NDJSON {
+        @Override
+        BookRecord parse(String line, ObjectMapper objectMapper) throws IOException {
+            return objectMapper.readValue(line, BookRecord.class);
+        }
+    },
+
+    CSV {
+        @Override
+        BookRecord parse(String line, ObjectMapper objectMapper) throws IOException {
+            List<String> fields = splitCsv(line);
+            if (fields.size() < 2) {
+                throw new IOException("Expected title,author but got " + fields.size() + " field(s)");
+            }
+            if (fields.get(0).equalsIgnoreCase("title") && fields.get(1).equalsIgnoreCase("author")) {
+                return null;
+            }
+            return new BookRecord(fields.get(0), fields.get(1), List.of());
+        }
+    };
+
+    /**
+     * Parses a non-blank line, returning {@code null} for lines that aren't books, like a header.
+     */
+    abstract BookRecord parse(String line, ObjectMapper objectMapper) throws IOException;
+
+    static ImportFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Unsupported import file " + file + ", expected .ndjson, .jsonl or .csv");
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"') {
+                    quoted = false;
+                }
+                else {
+                    field.append(c);
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            }
+            else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.danvega.books.importer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+ * @param file NDJSON ({@code .ndjson}, {@code .jsonl}) or CSV ({@code .csv}) file imported at startup, if set
+ * @param batchSize books written per transaction, which is also how often a checkpoint is saved
+ * @param queueCapacity parsed batches waiting to be written before the reader has to wait for the writer
+ * @param authorCacheSize author ids kept by name, the least recently used are looked up again when needed
+ * @param bufferSize bytes read from the file per read
+ */
+@ConfigurationProperties("books.import")
+public record ImportProperties(Path file,
+                               @DefaultValue("1000") int batchSize,
+                               @DefaultValue("4") int queueCapacity,
+                               @DefaultValue("10000") int authorCacheSize,
+                               @DefaultValue("65536") int bufferSize) {
+}
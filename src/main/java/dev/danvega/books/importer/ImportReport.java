@@ -0,0 +1,14 @@
+package dev.danvega.books.importer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Totals of a finished import, including rows written by earlier runs it resumed from.
+ * {@code skippedReviews} counts reviews left out of otherwise valid lines because their rating
+ * was missing or not between 1 and 5. {@code rowsPerSecond} counts books and reviews written by
+ * this run only.
+ */
+public record ImportReport(Path file, long resumedFromOffset, long books, long reviews, long authorsCreated,
+                           long skippedLines, long skippedReviews, Duration elapsed, double rowsPerSecond) {
+}
@@ -0,0 +1,27 @@
+package dev.danvega.books.importer;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports {@code books.import.file} at startup, e.g. {@code --books.import.file=catalog.ndjson}.
+ */
+@Component
+@ConditionalOnProperty("books.import.file")
+class ImportRunner implements ApplicationRunner {
+
+    private final CatalogImporter importer;
+    private final ImportProperties properties;
+
+    ImportRunner(CatalogImporter importer, ImportProperties properties) {
+        this.importer = importer;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        importer.importFile(properties.file());
+    }
+}
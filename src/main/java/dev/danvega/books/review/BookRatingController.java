@@ -0,0 +1,49 @@
+package dev.danvega.books.review;
+
+import dev.danvega.books.book.Book;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Rating fields of {@code Book}. All three go through one data loader, so any mix of them on a
+ * list of books costs a single lookup in the summary table.
+ */
+@Controller
+public class BookRatingController {
+
+    public BookRatingController(BookRatingSummaryRepository summaryRepository, BatchLoaderRegistry registry) {
+        registry.forTypePair(Long.class, BookRatingSummary.class)
+                .registerMappedBatchLoader((bookIds, env) -> Mono.fromSupplier(() -> summaryRepository
+                        .findByBookIdIn(bookIds).stream()
+                        .collect(Collectors.toMap(BookRatingSummary::getBookId, Function.identity()))));
+    }
+
+    @SchemaMapping
+    public CompletableFuture<Double> averageRating(Book book, DataLoader<Long, BookRatingSummary> summaries) {
+        return summaries.load(book.getId()).thenApply(summary -> summary != null ? summary.averageRating() : null);
+    }
+
+    @SchemaMapping
+    public CompletableFuture<Long> reviewCount(Book book, DataLoader<Long, BookRatingSummary> summaries) {
+        return summaries.load(book.getId()).thenApply(summary -> summary != null ? summary.getReviewCount() : 0L);
+    }
+
+    @SchemaMapping
+    public CompletableFuture<List<RatingCount>> ratingHistogram(Book book, DataLoader<Long, BookRatingSummary> summaries) {
+        return summaries.load(book.getId()).thenApply(summary -> {
+            List<Long> counts = summary != null ? summary.histogram() : List.of(0L, 0L, 0L, 0L, 0L);
+            return IntStream.range(0, counts.size())
+                    .mapToObj(i -> new RatingCount(i + 1, counts.get(i)))
+                    .toList();
+        });
+    }
+}
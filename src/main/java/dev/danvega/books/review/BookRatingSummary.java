@@ -0,0 +1,53 @@
+package dev.danvega.books.review;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.Immutable;
+
+import java.util.List;
+
+/**
+ * Review totals per book, kept up to date by a trigger on {@code review} (see import.sql), so they
+ * change in the same transaction as the reviews and are never written from Java.
+ */
+@Entity
+@Immutable
+public class BookRatingSummary {
+
+    @Id
+    private Long bookId;
+
+    private long reviewCount;
+    private long ratingSum;
+    private long oneStar;
+    private long twoStars;
+    private long threeStars;
+    private long fourStars;
+    private long fiveStars;
+
+    protected BookRatingSummary() {
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public Double averageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    }
+
+    /**
+     * Number of reviews for each rating, from 1 to 5 stars.
+     */
+    public List<Long> histogram() {
+        return List.of(oneStar, twoStars, threeStars, fourStars, fiveStars);
+    }
+}
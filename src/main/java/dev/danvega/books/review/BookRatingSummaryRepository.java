@@ -0,0 +1,13 @@
+package dev.danvega.books.review;
+
+import org.springframework.data.repository.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookRatingSummaryRepository extends Repository<BookRatingSummary, Long> {
+
+    List<BookRatingSummary> findAll();
+
+    List<BookRatingSummary> findByBookIdIn(Collection<Long> bookIds);
+}
@@ -0,0 +1,47 @@
+package dev.danvega.books.review;
+
+import dev.danvega.books.book.Book;
+import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.graphql.Pagination;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Controller
+public class LeaderboardController {
+
+    private final ReviewLeaderboard leaderboard;
+    private final BookRepository bookRepository;
+
+    public LeaderboardController(ReviewLeaderboard leaderboard, BookRepository bookRepository) {
+        this.leaderboard = leaderboard;
+        this.bookRepository = bookRepository;
+    }
+
+    @QueryMapping
+    public List<RankedBook> topRatedBooks(@Argument int limit, @Argument int minReviews) {
+        return leaderboard.topRated(Math.clamp(limit, 1, Pagination.MAX_PAGE_SIZE), Math.max(minReviews, 1));
+    }
+
+    @QueryMapping
+    public List<RankedBook> mostReviewedBooks(@Argument int limit) {
+        return leaderboard.mostReviewed(Math.clamp(limit, 1, Pagination.MAX_PAGE_SIZE));
+    }
+
+    // the ranking itself comes from memory, only the books are loaded, all in one query
+    @BatchMapping
+    public List<Book> book(List<RankedBook> rankedBooks) {
+        Map<Long, Book> booksById = bookRepository.findAllById(rankedBooks.stream().map(RankedBook::bookId).toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return rankedBooks.stream()
+                .map(rankedBook -> booksById.get(rankedBook.bookId()))
+                .toList();
+    }
+}
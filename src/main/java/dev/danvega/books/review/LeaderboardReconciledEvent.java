@@ -0,0 +1,8 @@
+package dev.danvega.books.review;
+
+/**
+ * Published when {@link ReviewLeaderboard#reconcile()} corrected at least one score, so anything
+ * derived from the rankings is out of date.
+ */
+public record LeaderboardReconciledEvent(int corrected) {
+}
@@ -0,0 +1,7 @@
+package dev.danvega.books.review;
+
+/**
+ * A book's place on one of the {@link ReviewLeaderboard} rankings, rank starts at 1.
+ */
+public record RankedBook(int rank, Long bookId, double averageRating, long reviewCount) {
+}
@@ -0,0 +1,4 @@
+package dev.danvega.books.review;
+
+public record RatingCount(int rating, long count) {
+}
@@ -2,13 +2,23 @@ package dev.danvega.books.review;
 
 import dev.danvega.books.book.Book;
 import jakarta.persistence.*;
+import org.hibernate.proxy.HibernateProxy;
+
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "review_book_created_at_idx", columnList = "book_id, created_at, id"),
+        @Index(name = "review_book_rating_idx", columnList = "book_id, rating, created_at, id"),
+        @Index(name = "review_created_at_idx", columnList = "created_at, id"),
+        @Index(name = "review_rating_created_at_idx", columnList = "rating, created_at, id"),
+        @Index(name = "review_reviewer_created_at_idx", columnList = "reviewer_name, created_at, id")
+})
 public class Review {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_seq")
+    @SequenceGenerator(name = "review_seq", sequenceName = "review_seq", allocationSize = 50)
     private Long id;
 
     private Integer rating;  // 1-5 stars
@@ -22,7 +32,10 @@ public class Review {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // imported reviews keep their original date
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
 
     // Constructors
@@ -87,16 +100,26 @@ public class Review {
         this.book = book;
     }
 
+    // reads the foreign key off a lazy proxy without initializing it
+    // (deliberately not a getter, so Spring Data doesn't mistake it for a mapped property)
+    public Long bookId() {
+        if (book instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        return book != null ? book.getId() : null;
+    }
+
     @Override
     public boolean equals(Object o) {
+        if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Review review = (Review) o;
-        return Objects.equals(id, review.id) && Objects.equals(rating, review.rating) && Objects.equals(comment, review.comment) && Objects.equals(createdAt, review.createdAt) && Objects.equals(reviewerName, review.reviewerName) && Objects.equals(verified, review.verified) && Objects.equals(book, review.book);
+        return Objects.equals(id, review.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, rating, comment, createdAt, reviewerName, verified, book);
+        return Objects.hash(id);
     }
 
     @Override
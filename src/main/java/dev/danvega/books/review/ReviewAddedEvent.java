@@ -0,0 +1,8 @@
+package dev.danvega.books.review;
+
+/**
+ * Published when a new review is saved, listeners that only care about committed data
+ * should use {@code @TransactionalEventListener}.
+ */
+public record ReviewAddedEvent(Review review) {
+}
@@ -0,0 +1,65 @@
+package dev.danvega.books.review;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed reviews out to the {@code reviewAdded} subscribers. Every subscriber gets its own
+ * bounded buffer in front of the shared sink, so the sink never waits for anyone and a slow client
+ * only loses its own reviews, according to the configured overflow strategy.
+ */
+@Component
+public class ReviewAddedPublisher {
+
+    private final Sinks.Many<Review> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final BufferOverflowStrategy overflow;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter published;
+    private final Counter dropped;
+
+    public ReviewAddedPublisher(ReviewSubscriptionProperties properties, MeterRegistry meterRegistry) {
+        this.bufferSize = properties.bufferSize();
+        this.overflow = properties.overflow();
+        Gauge.builder("graphql.subscriptions.active", subscribers, AtomicInteger::get)
+                .description("Open reviewAdded subscriptions")
+                .tag("subscription", "reviewAdded")
+                .register(meterRegistry);
+        this.published = Counter.builder("graphql.subscriptions.published")
+                .description("Events published to all subscribers")
+                .tag("subscription", "reviewAdded")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("graphql.subscriptions.dropped")
+                .description("Events dropped because a subscriber's buffer was full")
+                .tag("subscription", "reviewAdded")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewAdded(ReviewAddedEvent event) {
+        published.increment();
+        // retries only while another thread is emitting, having no subscribers isn't an error
+        sink.emitNext(event.review(), Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * Reviews added from now on, optionally only those of one book.
+     */
+    public Flux<Review> reviewsAdded(@Nullable Long bookId) {
+        return sink.asFlux()
+                .filter(review -> bookId == null || bookId.equals(review.bookId()))
+                .onBackpressureBuffer(bufferSize, review -> dropped.increment(), overflow)
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+}
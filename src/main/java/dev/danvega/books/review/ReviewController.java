@@ -0,0 +1,178 @@
+package dev.danvega.books.review;
+
+import dev.danvega.books.book.Book;
+import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.graphql.Pagination;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.dataloader.DataLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.GraphQlExceptionHandler;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Controller
+public class ReviewController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewController.class);
+    private static final String BOOK_REVIEWS_LOADER = "bookReviews";
+    private static final int MAX_REVIEWS_PER_BOOK = 100;
+    private final BookRepository bookRepository;
+    private final ReviewRepository reviewRepository;
+    private final ReviewAddedPublisher reviewAddedPublisher;
+    private final ApplicationEventPublisher events;
+
+    // the arguments are part of the key so books asking for different pages are loaded separately
+    record BookReviewsKey(Long bookId, int first, ReviewOrder orderBy) {}
+
+    public ReviewController(BookRepository bookRepository, ReviewRepository reviewRepository, BatchLoaderRegistry registry,
+                            ReviewAddedPublisher reviewAddedPublisher, ApplicationEventPublisher events) {
+        this.bookRepository = bookRepository;
+        this.reviewRepository = reviewRepository;
+        this.reviewAddedPublisher = reviewAddedPublisher;
+        this.events = events;
+        registry.<BookReviewsKey, List<Review>>forName(BOOK_REVIEWS_LOADER)
+                .registerMappedBatchLoader((keys, env) -> Mono.fromSupplier(() -> loadBookReviews(keys)));
+    }
+
+    @QueryMapping
+    public Optional<Review> review(@Argument Long id) {
+        return reviewRepository.findById(id);
+    }
+
+    @QueryMapping
+    public List<Review> reviews(@Argument ReviewFilter filter, @Argument ReviewOrder orderBy, @Argument int limit) {
+        return reviewRepository.findBy(matching(filter), query -> query
+                .sortBy(orderBy.sort())
+                .limit(Math.clamp(limit, 1, Pagination.MAX_PAGE_SIZE))
+                .all());
+    }
+
+    // the order always ends with the id, which makes it a valid keyset for the cursors
+    @QueryMapping
+    public Window<Review> reviewsConnection(@Argument ReviewFilter filter, @Argument ReviewOrder orderBy,
+                                            ScrollSubrange subrange) {
+        return reviewRepository.findBy(matching(filter), query -> query
+                .sortBy(orderBy.sort())
+                .limit(Pagination.limit(subrange).max())
+                .scroll(Pagination.position(subrange)));
+    }
+
+    // parsed up front, a malformed date-time is the client's mistake and shouldn't get as far as the query
+    private static Specification<Review> matching(@Nullable ReviewFilter filter) {
+        return filter == null ? ReviewSpecifications.matching(null, null, null)
+                : ReviewSpecifications.matching(filter, parse(filter.since()), parse(filter.until()));
+    }
+
+    @Nullable
+    private static LocalDateTime parse(@Nullable String dateTime) {
+        return dateTime != null ? LocalDateTime.parse(dateTime) : null;
+    }
+
+    @GraphQlExceptionHandler
+    public GraphQLError handle(DateTimeParseException ex, DataFetchingEnvironment env) {
+        return GraphqlErrorBuilder.newError(env)
+                .errorType(ErrorType.BAD_REQUEST)
+                .message("'%s' is not an ISO-8601 local date-time such as 2024-05-01T09:30".formatted(ex.getParsedString()))
+                .build();
+    }
+
+    @MutationMapping
+    @Transactional
+    public Review addReview(@Argument ReviewInput reviewInput) {
+        if (reviewInput.rating() < 1 || reviewInput.rating() > 5) {
+            throw new IllegalArgumentException("Rating must be between 1 and 5");
+        }
+        var review = new Review();
+        review.setBook(bookRepository.findById(reviewInput.bookId()).orElseThrow());
+        review.setRating(reviewInput.rating());
+        review.setComment(reviewInput.comment());
+        review.setReviewerName(reviewInput.reviewerName());
+        review.setVerified(Boolean.TRUE.equals(reviewInput.verified()));
+        var saved = reviewRepository.save(review);
+        events.publishEvent(new ReviewAddedEvent(saved));
+        return saved;
+    }
+
+    @SubscriptionMapping
+    public Flux<Review> reviewAdded(@Argument Long bookId) {
+        return reviewAddedPublisher.reviewsAdded(bookId);
+    }
+
+    // @BatchMapping can't see field arguments, so Book.reviews goes through a registered DataLoader instead
+    @SchemaMapping
+    public CompletableFuture<List<Review>> reviews(Book book, @Argument Integer first, @Argument ReviewOrder orderBy,
+                                                   DataFetchingEnvironment env) {
+        DataLoader<BookReviewsKey, List<Review>> loader = env.getDataLoader(BOOK_REVIEWS_LOADER);
+        int limit = Math.clamp(first, 0, MAX_REVIEWS_PER_BOOK);
+        return loader.load(new BookReviewsKey(book.getId(), limit, orderBy));
+    }
+
+    @BatchMapping
+    public List<Book> book(List<Review> reviews) {
+        log.info("Batch loading books for {} reviews", reviews.size());
+
+        // Get the distinct book IDs without initializing the lazy proxies
+        List<Long> bookIds = reviews.stream()
+                .map(Review::bookId)
+                .distinct()
+                .toList();
+
+        // Make a single query to initialize all books, so Book.author can read their author IDs
+        Map<Long, Book> booksById = bookRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        // Map back to original review order
+        return reviews.stream()
+                .map(review -> booksById.get(review.bookId()))
+                .toList();
+    }
+
+    private Map<BookReviewsKey, List<Review>> loadBookReviews(Set<BookReviewsKey> keys) {
+        log.info("Batch loading reviews for {} books", keys.size());
+        Map<BookReviewsKey, List<Review>> result = new HashMap<>();
+
+        // Usually every book in a response asks for the same page, which makes this a single query
+        keys.stream()
+                .collect(Collectors.groupingBy(key -> new BookReviewsKey(null, key.first(), key.orderBy())))
+                .forEach((page, pageKeys) -> {
+                    List<Long> bookIds = pageKeys.stream().map(BookReviewsKey::bookId).toList();
+                    Map<Long, List<Review>> reviewsByBookId = reviewRepository
+                            .findTopByBookIds(bookIds, page.first(), page.orderBy()).stream()
+                            .collect(Collectors.groupingBy(Review::bookId));
+                    pageKeys.forEach(key -> result.put(key,
+                            reviewsByBookId.getOrDefault(key.bookId(), Collections.emptyList())));
+                });
+        return result;
+    }
+
+}
@@ -1,7 +1,15 @@
 package dev.danvega.books.review;
 
+/**
+ * @param since ISO-8601 local date-time, inclusive
+ * @param until ISO-8601 local date-time, exclusive
+ */
 public record ReviewFilter(
         Integer rating,
+        Integer minRating,
         Boolean verified,
-        String reviewerName
+        String reviewerName,
+        Long bookId,
+        String since,
+        String until
 ) {}
@@ -0,0 +1,4 @@
+package dev.danvega.books.review;
+
+public record ReviewInput(Long bookId, Integer rating, String comment, String reviewerName, Boolean verified) {
+}
@@ -0,0 +1,184 @@
+package dev.danvega.books.review;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Books ranked by average rating and by number of reviews, kept in memory for
+ * {@code Query.topRatedBooks} and {@code Query.mostReviewedBooks}.
+ * <p>
+ * Each ranking is a skip list sorted best first, so a read walks the first {@code limit} entries
+ * without touching the database. Committed reviews, one at a time or a batch of an import, are
+ * applied as they come in; reviews that are deleted or changed without an event are picked up by
+ * {@link #reconcile()}, which compares every score with {@code book_rating_summary} and publishes a
+ * {@link LeaderboardReconciledEvent} if any were off.
+ */
+@Component
+public class ReviewLeaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewLeaderboard.class);
+
+    // ratings are compared as fractions, so equal averages tie exactly and fall through to the next key
+    private static final Comparator<Score> BY_RATING = ((Comparator<Score>) (a, b) ->
+            Long.compare(b.ratingSum() * a.reviewCount(), a.ratingSum() * b.reviewCount()))
+            .thenComparing(Comparator.comparingLong(Score::reviewCount).reversed())
+            .thenComparing(Score::bookId);
+    private static final Comparator<Score> BY_REVIEW_COUNT = Comparator.comparingLong(Score::reviewCount).reversed()
+            .thenComparing(BY_RATING);
+
+    private final NavigableSet<Score> byRating = new ConcurrentSkipListSet<>(BY_RATING);
+    private final NavigableSet<Score> byReviewCount = new ConcurrentSkipListSet<>(BY_REVIEW_COUNT);
+    // guarded by this, readers only ever see the skip lists
+    private final Map<Long, Score> scores = new HashMap<>();
+    private long version;
+
+    private final BookRatingSummaryRepository summaryRepository;
+    private final ApplicationEventPublisher events;
+    private final Counter corrections;
+
+    record Score(Long bookId, long reviewCount, long ratingSum, long version) {
+
+        RankedBook rank(int rank) {
+            return new RankedBook(rank, bookId, (double) ratingSum / reviewCount, reviewCount);
+        }
+    }
+
+    public ReviewLeaderboard(BookRatingSummaryRepository summaryRepository, ApplicationEventPublisher events,
+                             MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.events = events;
+        this.corrections = Counter.builder("books.leaderboard.corrections")
+                .description("Book scores the reconciliation found out of step with the database")
+                .register(meterRegistry);
+    }
+
+    public List<RankedBook> topRated(int limit, int minReviews) {
+        // books below minReviews are skipped, so a high threshold reads further into the list
+        return top(byRating, limit, minReviews);
+    }
+
+    public List<RankedBook> mostReviewed(int limit) {
+        return top(byReviewCount, limit, 1);
+    }
+
+    private static List<RankedBook> top(NavigableSet<Score> ranking, int limit, int minReviews) {
+        List<RankedBook> ranked = new ArrayList<>(limit);
+        // a concurrent update can move a book past the iterator, which then sees it twice
+        Set<Long> seen = new HashSet<>();
+        for (Score score : ranking) {
+            if (ranked.size() == limit) {
+                break;
+            }
+            if (score.reviewCount() >= minReviews && seen.add(score.bookId())) {
+                ranked.add(score.rank(ranked.size() + 1));
+            }
+        }
+        return ranked;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewAdded(ReviewAddedEvent event) {
+        onReviewsAdded(new ReviewsAddedEvent(List.of(event)));
+    }
+
+    // each book moves once however many of its reviews are in the batch
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onReviewsAdded(ReviewsAddedEvent event) {
+        Map<Long, long[]> added = new HashMap<>();
+        for (ReviewAddedEvent reviewAdded : event.reviews()) {
+            Review review = reviewAdded.review();
+            long[] countAndSum = added.computeIfAbsent(review.bookId(), bookId -> new long[2]);
+            countAndSum[0]++;
+            countAndSum[1] += review.getRating();
+        }
+        added.forEach((bookId, countAndSum) -> {
+            Score current = scores.get(bookId);
+            long reviewCount = current != null ? current.reviewCount() : 0;
+            long ratingSum = current != null ? current.ratingSum() : 0;
+            put(bookId, reviewCount + countAndSum[0], ratingSum + countAndSum[1]);
+        });
+    }
+
+    /**
+     * Brings every score in line with the summary table. Books updated by an event while the
+     * summaries were being read are left alone, the event is newer than what was read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${books.leaderboard.reconcile-interval:5m}",
+            initialDelayString = "${books.leaderboard.reconcile-interval:5m}")
+    public void reconcile() {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+        List<BookRatingSummary> summaries = summaryRepository.findAll();
+
+        int corrected = 0;
+        int books;
+        synchronized (this) {
+            Set<Long> inDatabase = new HashSet<>();
+            for (BookRatingSummary summary : summaries) {
+                inDatabase.add(summary.getBookId());
+                Score current = scores.get(summary.getBookId());
+                if (current != null && current.version() > startVersion) {
+                    continue;
+                }
+                if (current == null ? summary.getReviewCount() > 0
+                        : current.reviewCount() != summary.getReviewCount() || current.ratingSum() != summary.getRatingSum()) {
+                    put(summary.getBookId(), summary.getReviewCount(), summary.getRatingSum());
+                    corrected++;
+                }
+            }
+            for (Score score : List.copyOf(scores.values())) {
+                if (!inDatabase.contains(score.bookId()) && score.version() <= startVersion) {
+                    put(score.bookId(), 0, 0);
+                    corrected++;
+                }
+            }
+            books = scores.size();
+        }
+        corrections.increment(corrected);
+        log.info("Leaderboard reconciled, {} of {} books corrected", corrected, books);
+        if (corrected > 0) {
+            events.publishEvent(new LeaderboardReconciledEvent(corrected));
+        }
+    }
+
+    // callers hold the lock, the new score goes in before the old one leaves so readers never miss the book
+    private void put(Long bookId, long reviewCount, long ratingSum) {
+        Score previous = reviewCount > 0
+                ? scores.put(bookId, new Score(bookId, reviewCount, ratingSum, ++version))
+                : scores.remove(bookId);
+        Score next = scores.get(bookId);
+        // the rankings ignore the version, an unchanged score keeps its place
+        if (previous != null && next != null && BY_RATING.compare(previous, next) == 0) {
+            return;
+        }
+        if (next != null) {
+            byRating.add(next);
+            byReviewCount.add(next);
+        }
+        if (previous != null) {
+            byRating.remove(previous);
+            byReviewCount.remove(previous);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.danvega.books.review;
+
+import org.springframework.data.domain.Sort;
+
+import static org.springframework.data.domain.Sort.Order.asc;
+import static org.springframework.data.domain.Sort.Order.desc;
+
+public enum ReviewOrder {
+
+    NEWEST("created_at DESC, id DESC", Sort.by(desc("createdAt"), desc("id"))),
+    OLDEST("created_at ASC, id ASC", Sort.by(asc("createdAt"), asc("id"))),
+    HIGHEST_RATED("rating DESC, created_at DESC, id DESC", Sort.by(desc("rating"), desc("createdAt"), desc("id"))),
+    LOWEST_RATED("rating ASC, created_at ASC, id ASC", Sort.by(asc("rating"), asc("createdAt"), asc("id")));
+
+    // every order is a prefix-compatible scan of one of the indexes declared on Review,
+    // and ends with the id so it can be used as a keyset
+    private final String orderByClause;
+    private final Sort sort;
+
+    ReviewOrder(String orderByClause, Sort sort) {
+        this.orderByClause = orderByClause;
+        this.sort = sort;
+    }
+
+    String orderByClause() {
+        return orderByClause;
+    }
+
+    Sort sort() {
+        return sort;
+    }
+}
@@ -0,0 +1,15 @@
+package dev.danvega.books.review;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReviewQueries {
+
+    /**
+     * Loads at most {@code limit} reviews for each of the given books in a single round trip.
+     * The limit is applied per book in SQL, so a book with a large number of reviews only
+     * contributes {@code limit} rows to the result.
+     */
+    List<Review> findTopByBookIds(Collection<Long> bookIds, int limit, ReviewOrder order);
+
+}
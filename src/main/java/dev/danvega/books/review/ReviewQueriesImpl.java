@@ -0,0 +1,38 @@
+package dev.danvega.books.review;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.List;
+
+class ReviewQueriesImpl implements ReviewQueries {
+
+    // LATERAL lets Postgres walk the (book_id, ...) index and stop after :limit rows per book
+    private static final String TOP_BY_BOOK_IDS = """
+            SELECT r.id, r.rating, r.comment, r.created_at, r.reviewer_name, r.verified, r.book_id
+            FROM book b
+            CROSS JOIN LATERAL (
+                SELECT * FROM review
+                WHERE review.book_id = b.id
+                ORDER BY %s
+                LIMIT :limit
+            ) r
+            WHERE b.id IN (:bookIds)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Review> findTopByBookIds(Collection<Long> bookIds, int limit, ReviewOrder order) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createNativeQuery(TOP_BY_BOOK_IDS.formatted(order.orderByClause()), Review.class)
+                .setParameter("bookIds", bookIds)
+                .setParameter("limit", limit)
+                .getResultList();
+    }
+}
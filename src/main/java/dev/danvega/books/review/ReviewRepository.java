@@ -1,9 +1,7 @@
 package dev.danvega.books.review;
 
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.repository.query.QueryByExampleExecutor;
-import org.springframework.graphql.data.GraphQlRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-@GraphQlRepository
-public interface ReviewRepository extends JpaRepository<Review,Long>, QueryByExampleExecutor<Review> {
+public interface ReviewRepository extends JpaRepository<Review,Long>, JpaSpecificationExecutor<Review>, ReviewQueries {
 }
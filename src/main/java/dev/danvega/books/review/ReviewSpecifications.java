@@ -0,0 +1,54 @@
+package dev.danvega.books.review;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class ReviewSpecifications {
+
+    private ReviewSpecifications() {
+    }
+
+    /**
+     * Conditions for every field set in the filter. The Review indexes cover a book id or a
+     * reviewer name followed by the creation date, and the creation date on its own, so each of
+     * these narrows the scan instead of filtering after it. {@code since} and {@code until} are
+     * the filter's date-times, already parsed.
+     */
+    static Specification<Review> matching(@Nullable ReviewFilter filter, @Nullable LocalDateTime since,
+                                          @Nullable LocalDateTime until) {
+        return (root, query, cb) -> {
+            if (filter == null) {
+                return cb.conjunction();
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.bookId() != null) {
+                // compares the foreign key, no join
+                predicates.add(cb.equal(root.get("book").get("id"), filter.bookId()));
+            }
+            if (filter.reviewerName() != null) {
+                predicates.add(cb.equal(root.get("reviewerName"), filter.reviewerName()));
+            }
+            if (filter.rating() != null) {
+                predicates.add(cb.equal(root.get("rating"), filter.rating()));
+            }
+            if (filter.minRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), filter.minRating()));
+            }
+            if (filter.verified() != null) {
+                predicates.add(cb.equal(root.get("verified"), filter.verified()));
+            }
+            if (since != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), since));
+            }
+            if (until != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), until));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
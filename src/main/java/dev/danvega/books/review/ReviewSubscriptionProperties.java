@@ -0,0 +1,15 @@
+package dev.danvega.books.review;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+/**
+ * @param bufferSize reviews buffered for a subscriber that can't keep up
+ * @param overflow what happens when that buffer is full: {@code drop-oldest} keeps the latest reviews,
+ *                 {@code drop-latest} the earliest, {@code error} ends the subscription
+ */
+@ConfigurationProperties("books.graphql.subscriptions")
+public record ReviewSubscriptionProperties(@DefaultValue("256") int bufferSize,
+                                           @DefaultValue("drop-oldest") BufferOverflowStrategy overflow) {
+}
@@ -0,0 +1,15 @@
+package dev.danvega.books.review;
+
+import java.util.List;
+
+/**
+ * Published once for a batch of saved reviews, like an import batch, so listeners can handle the
+ * whole batch in one pass rather than once per review. Like {@link ReviewAddedEvent}, it's meant
+ * for {@code @TransactionalEventListener}s.
+ */
+public record ReviewsAddedEvent(List<ReviewAddedEvent> reviews) {
+
+    public ReviewsAddedEvent {
+        reviews = List.copyOf(reviews);
+    }
+}
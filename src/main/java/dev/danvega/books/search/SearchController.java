@@ -1,15 +1,21 @@
 package dev.danvega.books.search;
 
+import dev.danvega.books.author.Author;
 import dev.danvega.books.author.AuthorRepository;
+import dev.danvega.books.book.Book;
 import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.graphql.Pagination;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 public class SearchController {
@@ -17,18 +23,45 @@ public class SearchController {
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
+    private final SearchRepository searchRepository;
+    private final SuggestionIndex suggestionIndex;
 
-    public SearchController(BookRepository bookRepository, AuthorRepository authorRepository) {
+    public SearchController(BookRepository bookRepository, AuthorRepository authorRepository,
+                            SearchRepository searchRepository, SuggestionIndex suggestionIndex) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
+        this.searchRepository = searchRepository;
+        this.suggestionIndex = suggestionIndex;
     }
 
     @QueryMapping
-    List<Object> search(@Argument String text) {
-        log.debug("Searching for '" + text + "'");
-        List<Object> results = new ArrayList<>();
-        results.addAll(authorRepository.findAllByNameContainsIgnoreCase(text));
-        results.addAll(bookRepository.findAllByTitleContainsIgnoreCase(text));
-        return results;
+    List<Object> search(@Argument String text, @Argument Integer limit) {
+        log.debug("Searching for '{}'", text);
+        if (text == null) {
+            return List.of();
+        }
+        List<SearchHit> hits = searchRepository.search(text, Math.clamp(limit, 1, Pagination.MAX_PAGE_SIZE));
+
+        // Load the matching entities with one query per type, then restore the relevance order
+        Map<Long, Author> authors = authorRepository.findAllById(idsOf(hits, "Author")).stream()
+                .collect(Collectors.toMap(Author::getId, Function.identity()));
+        Map<Long, Book> books = bookRepository.findAllById(idsOf(hits, "Book")).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return hits.stream()
+                .map(hit -> hit.getType().equals("Author") ? authors.get(hit.getId()) : books.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @QueryMapping
+    List<Suggestion> suggest(@Argument String prefix, @Argument Integer limit) {
+        return suggestionIndex.suggest(prefix, Math.clamp(limit, 1, Pagination.MAX_PAGE_SIZE));
+    }
+
+    private static List<Long> idsOf(List<SearchHit> hits, String type) {
+        return hits.stream()
+                .filter(hit -> hit.getType().equals(type))
+                .map(SearchHit::getId)
+                .toList();
     }
 }
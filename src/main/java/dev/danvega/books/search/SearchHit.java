@@ -0,0 +1,11 @@
+package dev.danvega.books.search;
+
+public interface SearchHit {
+
+    String getType();
+
+    Long getId();
+
+    Double getRank();
+
+}
@@ -0,0 +1,64 @@
+package dev.danvega.books.search;
+
+import dev.danvega.books.book.Book;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface SearchRepository extends Repository<Book, Long> {
+
+    /**
+     * Ranked search across author names and book titles. Every word is matched as a prefix against
+     * the GIN indexed tsvector columns, and the trigram indexes keep substring matches working.
+     */
+    default List<SearchHit> search(String text, int limit) {
+        String query = Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        String pattern = "%" + text.replaceAll("([\\\\%_])", "\\\\$1") + "%";
+        return findHits(query, pattern, text, limit);
+    }
+
+    @Query(nativeQuery = true, value = """
+            SELECT hit.type AS type, hit.id AS id, hit.rank AS rank
+            FROM (
+                SELECT 'Author' AS type, a.id AS id,
+                       CAST(ts_rank(a.search_vector, q.query) + similarity(a.name, :text) AS double precision) AS rank
+                FROM author a, to_tsquery('simple', :query) AS q(query)
+                WHERE a.search_vector @@ q.query OR a.name ILIKE :pattern
+                UNION ALL
+                SELECT 'Book' AS type, b.id AS id,
+                       CAST(ts_rank(b.search_vector, q.query) + similarity(b.title, :text) AS double precision) AS rank
+                FROM book b, to_tsquery('simple', :query) AS q(query)
+                WHERE b.search_vector @@ q.query OR b.title ILIKE :pattern
+            ) hit
+            ORDER BY hit.rank DESC, hit.type, hit.id
+            LIMIT :limit
+            """)
+    List<SearchHit> findHits(@Param("query") String query, @Param("pattern") String pattern,
+                             @Param("text") String text, @Param("limit") int limit);
+
+    @Query("SELECT a.id AS id, a.name AS text FROM Author a")
+    Stream<SuggestionSource> streamAuthorSuggestions();
+
+    @Query("SELECT b.id AS id, b.title AS text FROM Book b")
+    Stream<SuggestionSource> streamBookSuggestions();
+
+    interface SuggestionSource {
+
+        Long getId();
+
+        String getText();
+
+    }
+
+}
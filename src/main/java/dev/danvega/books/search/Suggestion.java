@@ -0,0 +1,4 @@
+package dev.danvega.books.search;
+
+public record Suggestion(Long id, String text, SuggestionType type) {
+}
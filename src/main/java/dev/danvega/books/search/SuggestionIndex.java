@@ -0,0 +1,115 @@
+package dev.danvega.books.search;
+
+import dev.danvega.books.book.BookAddedEvent;
+import dev.danvega.books.book.BooksAddedEvent;
+import dev.danvega.books.search.SearchRepository.SuggestionSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over book titles and author names used by {@code Query.suggest}.
+ * <p>
+ * Every word start of a normalized text becomes a key in a sorted map, so all entries sharing a
+ * prefix form one contiguous range that can be read without touching the database. Keys are cut
+ * to {@link #MAX_KEY_LENGTH} characters to keep the index small; longer prefixes are checked
+ * against the full text.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionIndex.class);
+    private static final int MAX_KEY_LENGTH = 24;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final NavigableMap<String, Suggestion> entries = new ConcurrentSkipListMap<>();
+    private final SearchRepository searchRepository;
+
+    public SuggestionIndex(SearchRepository searchRepository) {
+        this.searchRepository = searchRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        entries.clear();
+        try (Stream<SuggestionSource> authors = searchRepository.streamAuthorSuggestions();
+             Stream<SuggestionSource> books = searchRepository.streamBookSuggestions()) {
+            authors.forEach(author -> add(new Suggestion(author.getId(), author.getText(), SuggestionType.AUTHOR)));
+            books.forEach(book -> add(new Suggestion(book.getId(), book.getText(), SuggestionType.BOOK)));
+        }
+        log.info("Suggestion index built with {} keys", entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookAdded(BookAddedEvent event) {
+        add(new Suggestion(event.bookId(), event.title(), SuggestionType.BOOK));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksAdded(BooksAddedEvent event) {
+        event.books().forEach(this::onBookAdded);
+    }
+
+    public void add(Suggestion suggestion) {
+        String text = normalize(suggestion.text());
+        String id = KEY_SEPARATOR + suggestion.type().name() + KEY_SEPARATOR + suggestion.id();
+        for (int start : wordStarts(text)) {
+            String key = text.substring(start, Math.min(text.length(), start + MAX_KEY_LENGTH));
+            entries.put(key + id, suggestion);
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String rangeStart = normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+        String rangeEnd = rangeStart + Character.MAX_VALUE;
+
+        // The same book or author shows up once per matching word, keep the first occurrence
+        Map<String, Suggestion> matches = new LinkedHashMap<>();
+        for (Suggestion suggestion : entries.subMap(rangeStart, true, rangeEnd, false).values()) {
+            if (normalized.length() > MAX_KEY_LENGTH && !matchesWordStart(normalize(suggestion.text()), normalized)) {
+                continue;
+            }
+            matches.putIfAbsent(suggestion.type().name() + suggestion.id(), suggestion);
+            if (matches.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(matches.values());
+    }
+
+    private static boolean matchesWordStart(String text, String prefix) {
+        return wordStarts(text).stream().anyMatch(start -> text.startsWith(prefix, start));
+    }
+
+    private static List<Integer> wordStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (i == 0 || text.charAt(i - 1) == ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+}
@@ -0,0 +1,6 @@
+package dev.danvega.books.search;
+
+public enum SuggestionType {
+    AUTHOR,
+    BOOK
+}
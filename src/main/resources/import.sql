@@ -0,0 +1,21 @@
+-- Executed by Hibernate after it creates the schema (ddl-auto: create / create-drop).
+-- One statement per line: Postgres specific DDL that can't be expressed with JPA annotations.
+
+-- Full-text and trigram search for Query.search; the tsvector columns are maintained by Postgres on every write
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE author ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(name, ''))) STORED;
+ALTER TABLE book ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, ''))) STORED;
+CREATE INDEX author_search_vector_idx ON author USING gin (search_vector);
+CREATE INDEX book_search_vector_idx ON book USING gin (search_vector);
+CREATE INDEX author_name_trgm_idx ON author USING gin (name gin_trgm_ops);
+CREATE INDEX book_title_trgm_idx ON book USING gin (title gin_trgm_ops);
+
+-- Review totals per book for Book.averageRating, reviewCount and ratingHistogram, maintained in the writing transaction.
+-- Statement level triggers aggregate a whole multi-row insert first, so a batch touches each book's row once,
+-- and rows are upserted in book_id order so concurrent writers lock them in the same order and can't deadlock.
+CREATE FUNCTION book_rating_summary_add() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN INSERT INTO book_rating_summary AS s (book_id, review_count, rating_sum, one_star, two_stars, three_stars, four_stars, five_stars) SELECT book_id, count(*), sum(rating), count(*) FILTER (WHERE rating = 1), count(*) FILTER (WHERE rating = 2), count(*) FILTER (WHERE rating = 3), count(*) FILTER (WHERE rating = 4), count(*) FILTER (WHERE rating = 5) FROM new_reviews WHERE book_id IS NOT NULL GROUP BY book_id ORDER BY book_id ON CONFLICT (book_id) DO UPDATE SET review_count = s.review_count + excluded.review_count, rating_sum = s.rating_sum + excluded.rating_sum, one_star = s.one_star + excluded.one_star, two_stars = s.two_stars + excluded.two_stars, three_stars = s.three_stars + excluded.three_stars, four_stars = s.four_stars + excluded.four_stars, five_stars = s.five_stars + excluded.five_stars; RETURN NULL; END $$;
+CREATE FUNCTION book_rating_summary_remove() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN UPDATE book_rating_summary s SET review_count = s.review_count - d.review_count, rating_sum = s.rating_sum - d.rating_sum, one_star = s.one_star - d.one_star, two_stars = s.two_stars - d.two_stars, three_stars = s.three_stars - d.three_stars, four_stars = s.four_stars - d.four_stars, five_stars = s.five_stars - d.five_stars FROM (SELECT book_id, count(*) AS review_count, sum(rating) AS rating_sum, count(*) FILTER (WHERE rating = 1) AS one_star, count(*) FILTER (WHERE rating = 2) AS two_stars, count(*) FILTER (WHERE rating = 3) AS three_stars, count(*) FILTER (WHERE rating = 4) AS four_stars, count(*) FILTER (WHERE rating = 5) AS five_stars FROM old_reviews GROUP BY book_id ORDER BY book_id) d WHERE s.book_id = d.book_id; RETURN NULL; END $$;
+CREATE TRIGGER review_rating_summary_insert AFTER INSERT ON review REFERENCING NEW TABLE AS new_reviews FOR EACH STATEMENT EXECUTE FUNCTION book_rating_summary_add();
+CREATE TRIGGER review_rating_summary_delete AFTER DELETE ON review REFERENCING OLD TABLE AS old_reviews FOR EACH STATEMENT EXECUTE FUNCTION book_rating_summary_remove();
+CREATE TRIGGER review_rating_summary_update_old AFTER UPDATE ON review REFERENCING OLD TABLE AS old_reviews FOR EACH STATEMENT EXECUTE FUNCTION book_rating_summary_remove();
+CREATE TRIGGER review_rating_summary_update_new AFTER UPDATE ON review REFERENCING NEW TABLE AS new_reviews FOR EACH STATEMENT EXECUTE FUNCTION book_rating_summary_add();
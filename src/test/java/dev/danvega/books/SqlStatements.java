@@ -0,0 +1,86 @@
+package dev.danvega.books;
+
+import dev.danvega.books.graphql.SqlStatementCounter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SQL statements Hibernate prepared while running some test code, to put a budget on the queries
+ * an operation may issue:
+ * <pre>
+ * SqlStatements.during(() -> graphQlTester.document(document).execute())
+ *         .assertAtMost(2);
+ * </pre>
+ * Only statements prepared on the calling thread are seen. That covers {@code GraphQlTester}
+ * calls, which execute synchronously, data loaders included.
+ */
+public final class SqlStatements {
+
+    private final List<String> statements;
+
+    private SqlStatements(List<String> statements) {
+        this.statements = statements;
+    }
+
+    public static SqlStatements during(Runnable action) {
+        try (var capture = SqlStatementCounter.capture()) {
+            action.run();
+            return new SqlStatements(capture.statements());
+        }
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public List<String> statements() {
+        return statements;
+    }
+
+    /**
+     * Number of statements per shape, the SQL without literals and with parameter lists collapsed,
+     * so the same query issued for different ids counts as one shape.
+     */
+    public Map<String, Long> shapes() {
+        return statements.stream().collect(Collectors.groupingBy(SqlStatements::shape, LinkedHashMap::new,
+                Collectors.counting()));
+    }
+
+    public SqlStatements assertAtMost(int budget) {
+        assertThat(count())
+                .withFailMessage("Expected at most %d SQL statements but %d were issued:%n%s", budget, count(), describe())
+                .isLessThanOrEqualTo(budget);
+        return this;
+    }
+
+    /**
+     * Fails when a shape repeats more often than allowed, the signature of an N+1.
+     */
+    public SqlStatements assertEachShapeAtMost(int times) {
+        assertThat(shapes().values())
+                .withFailMessage("Expected each SQL statement at most %d times but got:%n%s", times, describe())
+                .allMatch(count -> count <= times);
+        return this;
+    }
+
+    private String describe() {
+        return shapes().entrySet().stream()
+                .map(entry -> "  %dx %s".formatted(entry.getValue(), entry.getKey()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    static String shape(String sql) {
+        return sql.replaceAll("'(?:[^']|'')*'", "?")
+                .replaceAll("\\b\\d+\\b", "?")
+                .replaceAll("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)", "(?)")
+                .replaceAll("\\s+", " ")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,148 @@
+package dev.danvega.books.author;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.danvega.books.graphql.RemoteFieldExecutor;
+import dev.danvega.books.graphql.RemoteFieldProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthorBooksClientTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // the author ids of every request the stub received
+    private final List<List<Long>> requests = new CopyOnWriteArrayList<>();
+    private volatile Duration delay = Duration.ZERO;
+    private HttpServer server;
+    private AuthorBooksClient client;
+    private RemoteFieldExecutor remoteFields;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/authors/books", this::books);
+        // slow answers mustn't hold up the next request
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        client.close();
+        remoteFields.close();
+        server.stop(0);
+    }
+
+    // answers with two books per author: {"1":[{"id":10,"title":"Book 1.0"},...],...}
+    private void books(HttpExchange exchange) throws IOException {
+        List<Long> ids = Arrays.stream(exchange.getRequestURI().getQuery().substring("ids=".length()).split(","))
+                .map(Long::valueOf)
+                .toList();
+        requests.add(ids);
+        try {
+            Thread.sleep(delay.toMillis());
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        String body = ids.stream()
+                .map(id -> "\"%d\":[{\"id\":%d,\"title\":\"Book %d.0\"},{\"id\":%d,\"title\":\"Book %d.1\"}]"
+                        .formatted(id, id * 10, id, id * 10 + 1, id))
+                .collect(Collectors.joining(",", "{", "}"));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private AuthorBooksClient client(Duration timeToLive, int failureThreshold) {
+        return client(timeToLive, failureThreshold, 100);
+    }
+
+    private AuthorBooksClient client(Duration timeToLive, int failureThreshold, int maxBatchSize) {
+        var properties = new AuthorBooksProperties(null, Duration.ofMillis(50), maxBatchSize, timeToLive, Duration.ofMinutes(10),
+                1000, Duration.ofSeconds(1), failureThreshold, Duration.ofMinutes(1));
+        var source = new HttpAuthorBooksSource(RestClient.builder()
+                .baseUrl(URI.create("http://localhost:" + server.getAddress().getPort()).toString())
+                .build());
+        remoteFields = new RemoteFieldExecutor(new RemoteFieldProperties(Duration.ofSeconds(2), null, 128), meterRegistry);
+        client = new AuthorBooksClient(source, properties, remoteFields, meterRegistry);
+        return client;
+    }
+
+    private static List<AuthorBook> await(CompletableFuture<List<AuthorBook>> lookup) throws Exception {
+        return lookup.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookupsIntoOneCallPerDistinctAuthor() throws Exception {
+        var client = client(Duration.ofMinutes(1), 5);
+
+        // 50 lookups from "different requests" for only 5 distinct authors
+        List<CompletableFuture<List<AuthorBook>>> lookups = IntStream.range(0, 50)
+                .mapToObj(i -> client.booksOf((long) i % 5 + 1))
+                .toList();
+
+        assertThat(await(lookups.get(7))).containsExactly(new AuthorBook(30L, "Book 3.0"), new AuthorBook(31L, "Book 3.1"));
+        for (var lookup : lookups) {
+            assertThat(await(lookup)).hasSize(2);
+        }
+        assertThat(requests).singleElement().satisfies(ids -> assertThat(ids).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L));
+
+        // answered from the cache from now on
+        assertThat(await(client.booksOf(3L))).hasSize(2);
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void shouldSendAFullBatchStraightAway() throws Exception {
+        var client = client(Duration.ofMinutes(1), 5, 2);
+
+        List<CompletableFuture<List<AuthorBook>>> lookups;
+        // holding the lock the pending lookups are guarded by, nothing but the lookups themselves can take a batch
+        synchronized (client) {
+            lookups = IntStream.rangeClosed(1, 5).mapToObj(i -> client.booksOf((long) i)).toList();
+        }
+        for (var lookup : lookups) {
+            assertThat(await(lookup)).hasSize(2);
+        }
+        assertThat(requests).hasSize(3).allMatch(ids -> ids.size() <= 2);
+    }
+
+    @Test
+    void shouldServeStaleBooksWhileTheSourceIsSlowAndStopCallingItOnceTheBreakerOpens() throws Exception {
+        var client = client(Duration.ZERO, 2);
+        assertThat(await(client.booksOf(1L))).hasSize(2);
+
+        delay = Duration.ofSeconds(2);
+        for (int i = 0; i < 2; i++) {
+            assertThat(await(client.booksOf(1L))).hasSize(2);
+        }
+        assertThatThrownBy(() -> await(client.booksOf(2L))).hasCauseInstanceOf(AuthorBooksUnavailableException.class);
+        assertThat(requests).hasSize(3);
+
+        assertThat(meterRegistry.get("books.author-books.calls").tag("outcome", "failure").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("books.author-books.stale").counter().count()).isEqualTo(2);
+    }
+}
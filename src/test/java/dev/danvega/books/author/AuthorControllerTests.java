@@ -1,20 +1,91 @@
 package dev.danvega.books.author;
 
+import dev.danvega.books.SqlStatements;
+import dev.danvega.books.book.Book;
+import dev.danvega.books.book.BookRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "books.author-books.max-batch-size=5",
+        "books.author-books.call-timeout=5s",
+        "books.graphql.remote-fields.max-concurrent-calls=3",
+        "books.graphql.remote-fields.timeout=5s"
+})
 @AutoConfigureGraphQlTester
 class AuthorControllerTests {
 
+    // the local catalog, answering a second late
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SlowAuthorCatalog {
+
+        @Bean
+        @Primary
+        SlowAuthorBooksSource slowAuthorBooksSource(BookRepository bookRepository) {
+            return new SlowAuthorBooksSource(new LocalAuthorBooksSource(bookRepository));
+        }
+    }
+
+    static class SlowAuthorBooksSource implements AuthorBooksSource {
+
+        private final AuthorBooksSource delegate;
+        private final List<Set<Long>> calls = new CopyOnWriteArrayList<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+        private volatile boolean failing;
+
+        SlowAuthorBooksSource(AuthorBooksSource delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Map<Long, List<AuthorBook>> booksOf(Set<Long> authorIds) {
+            calls.add(Set.copyOf(authorIds));
+            if (failing) {
+                throw new IllegalStateException("Author catalog is down");
+            }
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1000);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                active.decrementAndGet();
+            }
+            return delegate.booksOf(authorIds);
+        }
+    }
+
     @Autowired
     private GraphQlTester graphQlTester;
 
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private SlowAuthorBooksSource authorBooksSource;
+
     @Test
     void shouldBatchLoadBooksForAuthors() {
         String document = """
@@ -39,4 +110,114 @@ class AuthorControllerTests {
                     assertThat(authors).allMatch(author -> !author.getBooks().isEmpty());
                 });
     }
+
+    @Test
+    @Transactional
+    void shouldLoadBooksOfAuthorsInTwoQueriesAtAnyDataSize() {
+        String document = "query { authors { name books { title } } }";
+
+        SqlStatements.during(() -> graphQlTester.document(document).execute().path("authors").entityList(Author.class).hasSize(3))
+                .assertAtMost(2);
+
+        for (int i = 0; i < 20; i++) {
+            Author author = new Author();
+            author.setName("Budget Author " + i);
+            authorRepository.save(author);
+            for (int j = 0; j < 3; j++) {
+                Book book = new Book();
+                book.setTitle("Budget Book " + i + "." + j);
+                book.setAuthor(author);
+                bookRepository.save(book);
+            }
+        }
+        bookRepository.flush();
+
+        SqlStatements.during(() -> graphQlTester.document(document).execute().path("authors").entityList(Author.class).hasSize(23))
+                .assertAtMost(2);
+    }
+
+    @Test
+    void shouldServeBooksFromTheAuthorCatalog() {
+        var response = graphQlTester.document("query { authors { id booksWithDelay { title } } }").execute();
+
+        List<Long> authorIds = response.path("authors[*].id").entityList(Long.class).get();
+        for (int i = 0; i < authorIds.size(); i++) {
+            Long authorId = authorIds.get(i);
+            String[] titles = bookRepository.findByAuthorIdIn(List.of(authorId)).stream()
+                    .map(Book::getTitle)
+                    .toArray(String[]::new);
+            response.path("authors[%d].booksWithDelay[*].title".formatted(i)).entityList(String.class)
+                    .containsExactly(titles);
+        }
+    }
+
+    @Test
+    @Transactional
+    void shouldFetchRemoteBooksForAllAuthorsConcurrently() {
+        addAuthors(20);
+        int callsBefore = authorBooksSource.calls.size();
+
+        long start = System.nanoTime();
+        graphQlTester.document("query { authors { name booksWithDelay { title } } }")
+                .execute()
+                .path("authors[*].booksWithDelay")
+                .entityList(Object.class)
+                .hasSize(23);
+
+        // at least four batches of five that take a second each, three at a time they take two, one after another four
+        List<Set<Long>> calls = authorBooksSource.calls.subList(callsBefore, authorBooksSource.calls.size());
+        assertThat(calls).hasSizeGreaterThanOrEqualTo(4).allMatch(authorIds -> authorIds.size() <= 5);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+    }
+
+    @Test
+    @Transactional
+    void shouldKeepRemoteBookCallsWithinTheConcurrentCallLimit() {
+        addAuthors(20);
+        authorBooksSource.maxActive.set(0);
+
+        graphQlTester.document("query { authors { name booksWithDelay { title } } }")
+                .execute()
+                .path("authors[*].booksWithDelay")
+                .entityList(Object.class)
+                .hasSize(23);
+
+        // the batches share the permits of books.graphql.remote-fields.max-concurrent-calls
+        assertThat(authorBooksSource.maxActive.get()).isEqualTo(3);
+    }
+
+    @Test
+    @Transactional
+    void shouldReportBooksTheCatalogCannotProvideAsUnavailable() {
+        Author author = new Author();
+        author.setName("Uncatalogued Author");
+        authorRepository.saveAndFlush(author);
+
+        authorBooksSource.failing = true;
+        try {
+            var response = graphQlTester.document("query { authors { name booksWithDelay { title } } }").execute();
+            // authors fetched by earlier tests are still answered from the cache
+            response.errors().satisfy(errors -> {
+                assertThat(errors).isNotEmpty().allSatisfy(error -> {
+                    assertThat(error.getErrorType()).isEqualTo(AuthorBooksExceptionResolver.UNAVAILABLE);
+                    assertThat(error.getPath()).endsWith(".booksWithDelay");
+                });
+                assertThat(errors).anySatisfy(error ->
+                        assertThat(error.getMessage()).isEqualTo("Books of author " + author.getId() + " are unavailable"));
+            });
+            response.path("authors[*].name").entityList(String.class).contains("Uncatalogued Author");
+        }
+        finally {
+            authorBooksSource.failing = false;
+        }
+    }
+
+    private void addAuthors(int count) {
+        for (int i = 0; i < count; i++) {
+            Author author = new Author();
+            author.setName("Remote Author " + i);
+            authorRepository.save(author);
+        }
+        authorRepository.flush();
+    }
 }
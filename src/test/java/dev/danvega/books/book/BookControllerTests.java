@@ -1,12 +1,17 @@
 package dev.danvega.books.book;
 
+import dev.danvega.books.SqlStatements;
+import graphql.ErrorType;
 import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -14,11 +19,18 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @SpringBootTest
 @AutoConfigureGraphQlTester
 @Transactional
+@RecordApplicationEvents
 class BookControllerTests {
 
     @Autowired
     private GraphQlTester graphQlTester;
 
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private BookRepository bookRepository;
+
     @Test
     void shouldGetAllBooks() {
         // language=GraphQL
@@ -93,4 +105,140 @@ class BookControllerTests {
                 });
     }
 
+    @Test
+    void shouldAddBooksAndReportInvalidInputs() {
+        var document = """
+        mutation($inputs: [BookInput!]!) {
+            addBooks(inputs: $inputs) {
+                added
+                failed
+                results {
+                    index
+                    book {
+                        id
+                        title
+                        author {
+                            name
+                        }
+                    }
+                    error
+                }
+            }
+        }
+        """;
+        List<Map<String, Object>> inputs = List.of(
+                Map.of("title", "First Bulk Book", "authorId", 1),
+                Map.of("title", "Orphan", "authorId", 999),
+                Map.of("title", "Second Bulk Book", "authorId", 3)
+        );
+
+        var response = graphQlTester.document(document)
+                .variable("inputs", inputs)
+                .execute();
+        response.path("addBooks.added").entity(Integer.class).isEqualTo(2);
+        response.path("addBooks.failed").entity(Integer.class).isEqualTo(1);
+        response.path("addBooks.results[1].error").entity(String.class).isEqualTo("No author with id 999");
+        response.path("addBooks.results[2].book.title").entity(String.class).isEqualTo("Second Bulk Book");
+        response.path("addBooks.results[2].book.author.name").entity(String.class).isEqualTo("Greg Turnquist");
+
+        // one event for the whole batch, not one per book
+        assertThat(events.stream(BookAddedEvent.class).count()).isEqualTo(0L);
+        assertThat(events.stream(BooksAddedEvent.class)
+                .map(event -> event.books().stream().map(BookAddedEvent::title).toList())
+                .toList())
+                .isEqualTo(List.of(List.of("First Bulk Book", "Second Bulk Book")));
+    }
+
+    @Test
+    void shouldPageThroughBooksWithCursors() {
+        var document = """
+            query($first: Int!, $after: String) {
+                booksConnection(first: $first, after: $after) {
+                    edges {
+                        cursor
+                        node {
+                            id
+                            title
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        endCursor
+                    }
+                }
+            }
+        """;
+
+        var firstPage = graphQlTester.document(document)
+                .variable("first", 3)
+                .execute();
+        firstPage.path("booksConnection.edges").entityList(Object.class).hasSize(3);
+        firstPage.path("booksConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true);
+        String endCursor = firstPage.path("booksConnection.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(document)
+                .variable("first", 3)
+                .variable("after", endCursor)
+                .execute()
+                .path("booksConnection.edges[*].node.title")
+                .entityList(String.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldReportAMissingAuthorAsANullField() {
+        var book = new Book();
+        book.setTitle("Anonymous");
+        Long id = bookRepository.saveAndFlush(book).getId();
+
+        graphQlTester.document("query($id: Int!) { book(id: $id) { title author { name } } }")
+                .variable("id", id)
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.NullValueInNonNullableField)
+                .verify();
+    }
+
+    @Test
+    void shouldResolveAuthorsOfProjectedBooks() {
+        var document = """
+            query {
+                books {
+                    title
+                    author {
+                        id
+                        books {
+                            title
+                        }
+                    }
+                }
+            }
+        """;
+
+        var response = graphQlTester.document(document).execute();
+        response.path("books[*].author.id").entityList(Long.class).containsExactly(1L, 2L, 3L, 3L);
+        response.path("books[3].author.books[*].title").entityList(String.class).hasSize(2);
+    }
+
+    @Test
+    void shouldLoadBooksWithAuthorsAndReviewsWithinBudget() {
+        var document = """
+            query {
+                books {
+                    title
+                    author {
+                        name
+                    }
+                    reviews(first: 3) {
+                        rating
+                    }
+                }
+            }
+        """;
+
+        SqlStatements.during(() -> graphQlTester.document(document).execute().path("books").entityList(Object.class).hasSize(4))
+                .assertAtMost(2)
+                .assertEachShapeAtMost(1);
+    }
+
 }
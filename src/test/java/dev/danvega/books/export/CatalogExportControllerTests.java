@@ -0,0 +1,53 @@
+package dev.danvega.books.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogExportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldStreamBooksWithReviewSummariesAsNdjson() throws Exception {
+        var started = mockMvc.perform(get("/export/books.ndjson")).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<BookExportRow> rows = Arrays.stream(body.split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BookExportRow.class);
+                    }
+                    catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .toList();
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows).extracting(BookExportRow::id).isSorted();
+        assertThat(rows).allSatisfy(row -> assertThat(row.authorName()).isNotBlank());
+        assertThat(rows.stream().mapToLong(BookExportRow::reviewCount).sum()).isPositive();
+    }
+}
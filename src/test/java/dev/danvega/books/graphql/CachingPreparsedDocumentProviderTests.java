@@ -0,0 +1,49 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingPreparsedDocumentProviderTests {
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    private final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate = input -> {
+        parseCount.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+    };
+
+    @Test
+    void shouldParseRepeatedDocumentsOnce() {
+        var provider = new CachingPreparsedDocumentProvider(10);
+        var input = ExecutionInput.newExecutionInput("{ books { id } }").build();
+
+        provider.getDocumentAsync(input, parseAndValidate).join();
+        provider.getDocumentAsync(input, parseAndValidate).join();
+
+        assertThat(parseCount).hasValue(1);
+        assertThat(provider.getCache().stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheDocumentsWithErrors() {
+        var provider = new CachingPreparsedDocumentProvider(10);
+        var input = ExecutionInput.newExecutionInput("{ nope }").build();
+        Function<ExecutionInput, PreparsedDocumentEntry> failing = in -> {
+            parseCount.incrementAndGet();
+            return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError().message("invalid").build());
+        };
+
+        provider.getDocumentAsync(input, failing).join();
+        provider.getDocumentAsync(input, failing).join();
+
+        assertThat(parseCount).hasValue(2);
+    }
+}
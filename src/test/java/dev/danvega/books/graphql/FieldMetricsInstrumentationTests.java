@@ -0,0 +1,88 @@
+package dev.danvega.books.graphql;
+
+import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FieldMetricsInstrumentationTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    // stands in for a lazy association: one statement per call
+    private final DataFetcher<String> detail = env -> {
+        counter.inspect("select detail from item where id = ?");
+        return "detail";
+    };
+
+    private final GraphQL graphQL = graphQL(1.0);
+
+    private GraphQL graphQL(double sampleRate) {
+        var fieldMetrics = new FieldMetricsInstrumentation(new FieldMetricsProperties(sampleRate, 5), meterRegistry);
+        return GraphQL.newGraphQL(schema())
+                .instrumentation(new ChainedInstrumentation(new FieldTimingInstrumentation(), fieldMetrics))
+                .build();
+    }
+
+    private GraphQLSchema schema() {
+        var typeDefinitions = new SchemaParser().parse("""
+                type Query { items: [Item!]!, item: Item! }
+                type Item { id: Int!, detail: String! }
+                """);
+        var wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type
+                        .dataFetcher("items", env -> IntStream.range(0, 10).mapToObj(id -> Map.of("id", id)).toList())
+                        .dataFetcher("item", env -> Map.of("id", 1)))
+                .type("Item", type -> type.dataFetcher("detail", detail))
+                .build();
+        return new SchemaGenerator().makeExecutableSchema(typeDefinitions, wiring);
+    }
+
+    @Test
+    void shouldRecordTimingsAndStatementsPerField() {
+        assertThat(graphQL.execute("{ item { id detail } }").getErrors()).isEmpty();
+
+        assertThat(meterRegistry.get("graphql.field").tag("field", "Item.detail").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.field.statements").tag("field", "Item.detail").summary().totalAmount())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("graphql.field.statements").tag("field", "Item.id").summary().totalAmount())
+                .isZero();
+        assertThat(meterRegistry.get("graphql.field.n-plus-one").tag("field", "Item.detail").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void shouldFlagFieldsIssuingStatementsForEachListElement() {
+        try (var capture = SqlStatementCounter.capture()) {
+            assertThat(graphQL.execute("{ items { id detail } }").getErrors()).isEmpty();
+            assertThat(capture.statements()).hasSize(10).containsOnly("select detail from item where id = ?");
+        }
+
+        assertThat(meterRegistry.get("graphql.field.statements").tag("field", "Item.detail").summary().totalAmount())
+                .isEqualTo(10);
+        assertThat(meterRegistry.get("graphql.field.n-plus-one").tag("field", "Item.detail").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("graphql.field.n-plus-one").tag("field", "Item.id").counters())
+                .allMatch(nPlusOne -> nPlusOne.count() == 0);
+    }
+
+    @Test
+    void shouldSkipOperationsOutsideTheSample() {
+        var unsampled = graphQL(0.0);
+
+        assertThat(unsampled.execute("{ items { detail } }").getErrors()).isEmpty();
+
+        assertThat(meterRegistry.find("graphql.field").timers()).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.danvega.books.graphql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PersistedQueryTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldRegisterUnknownDocumentOnMiss() throws Exception {
+        var document = "query { book(id: 3) { title } }";
+        var hash = CaffeinePersistedQueryCache.sha256Hex(document);
+        var extensions = """
+                "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}""".formatted(hash);
+
+        execute("{" + extensions + "}")
+                .andExpect(jsonPath("$.errors[0].message").value("PersistedQueryNotFound"));
+
+        execute("{\"query\": \"" + document + "\", " + extensions + "}")
+                .andExpect(jsonPath("$.data.book.title").value("Spring Boot in Action"));
+
+        execute("{" + extensions + "}")
+                .andExpect(jsonPath("$.data.book.title").value("Spring Boot in Action"));
+    }
+
+    @Test
+    void shouldRunAllowlistedDocumentByHashAlone() throws Exception {
+        var document = new ClassPathResource("graphql-documents/findBookById.graphql").getContentAsString(StandardCharsets.UTF_8);
+        var body = """
+                {"variables": {"id": 1}, "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "%s"}}}"""
+                .formatted(CaffeinePersistedQueryCache.sha256Hex(document));
+
+        execute(body)
+                .andExpect(jsonPath("$.data.book.id").value("1"))
+                .andExpect(jsonPath("$.data.book.author.name").exists());
+    }
+
+    @Test
+    void shouldHandOnTheRewrittenBodyThroughTheReaderAsWell() throws Exception {
+        var request = new MockHttpServletRequest("POST", "/graphql");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setCharacterEncoding("UTF-8");
+        request.setContent("{\"extensions\": {\"persistedQuery\": {\"version\": 1, \"sha256Hash\": \"abc\"}}}"
+                .getBytes(StandardCharsets.UTF_8));
+        var chain = new MockFilterChain();
+
+        new PersistedQueryRequestFilter(new ObjectMapper()).doFilter(request, new MockHttpServletResponse(), chain);
+
+        ServletRequest forwarded = chain.getRequest();
+        assertThat(forwarded.getReader().lines().collect(Collectors.joining()))
+                .contains("\"query\":\"" + PersistedQuerySupport.PERSISTED_QUERY_MARKER + "\"");
+    }
+
+    private ResultActions execute(String body) throws Exception {
+        return mockMvc.perform(post("/graphql").contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+}
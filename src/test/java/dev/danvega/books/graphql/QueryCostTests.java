@@ -0,0 +1,133 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class QueryCostTests {
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Test
+    void shouldReportCostFromPaginationArguments() {
+        // 1 connection + 5 edges x (edge + node + author)
+        assertThat(cost("query { booksConnection(first: 5) { edges { node { title author { name } } } } }")).isEqualTo(16L);
+        // 1 book + 3 reviews
+        assertThat(cost("query { book(id: 1) { title reviews(first: 3) { rating } } }")).isEqualTo(4L);
+        // 500 books x (book + author)
+        assertThat(cost("query { books { title author { name } } }")).isEqualTo(1000L);
+    }
+
+    @Test
+    void shouldRejectRecursiveQueriesOverBudget() {
+        var response = execute("query { authors { books { author { books { title } } } } }");
+
+        assertThat(response.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("Operation cost 60500 exceeds the maximum of 10000"));
+        assertThat(response.<Object>getData()).isNull();
+    }
+
+    @Test
+    void shouldReturnCapacityWhenALaterInstrumentationAbortsTheOperation() {
+        var costs = new QueryCostInstrumentation(new QueryCostProperties(10000, 1, 10, Map.of(), Map.of()),
+                new SimpleMeterRegistry());
+        var aborting = new SimplePerformantInstrumentation() {
+
+            @Override
+            public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+                    InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+                throw new AbortExecutionException("Aborted after admission");
+            }
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(itemGraphQL(new ChainedInstrumentation(List.of(costs, aborting)), () -> { })
+                    .execute("{ item { id } }").getErrors())
+                    .singleElement().satisfies(error -> assertThat(error.getMessage()).isEqualTo("Aborted after admission"));
+        }
+        assertThat(itemGraphQL(costs, () -> { }).execute("{ item { id } }").getErrors()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectStraightAwayWhenTheBudgetIsTaken() throws Exception {
+        var costs = new QueryCostInstrumentation(new QueryCostProperties(10000, 1, 10, Map.of(), Map.of()),
+                new SimpleMeterRegistry());
+        var executing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var slow = itemGraphQL(costs, () -> {
+            executing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<ExecutionResult> first = CompletableFuture.supplyAsync(() -> slow.execute("{ item { id } }"));
+        try {
+            assertThat(executing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            ExecutionResult second = itemGraphQL(costs, () -> { }).execute("{ item { id } }");
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(200));
+            assertThat(second.getErrors()).singleElement().satisfies(error -> assertThat(error.getMessage())
+                    .isEqualTo("Too many expensive operations are executing, try again later"));
+        }
+        finally {
+            release.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS).getErrors()).isEmpty();
+    }
+
+    interface Fetch {
+
+        void run() throws InterruptedException;
+    }
+
+    // Query.item costs 1, its fetcher runs the given code first
+    private static GraphQL itemGraphQL(Instrumentation instrumentation, Fetch fetch) {
+        var typeDefinitions = new SchemaParser().parse("type Query { item: Item } type Item { id: Int }");
+        var wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("item", env -> {
+                    fetch.run();
+                    return Map.of("id", 1);
+                }))
+                .build();
+        return GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(typeDefinitions, wiring))
+                .instrumentation(instrumentation)
+                .build();
+    }
+
+    private Object cost(String document) {
+        var response = execute(document);
+        assertThat(response.getErrors()).isEmpty();
+        return ((Map<?, ?>) response.getExtensions().get("cost")).get("requested");
+    }
+
+    private ExecutionGraphQlResponse execute(String document) {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(document, null, null, null, "1", null)).block();
+    }
+}
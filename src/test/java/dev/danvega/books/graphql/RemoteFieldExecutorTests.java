@@ -0,0 +1,99 @@
+package dev.danvega.books.graphql;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RemoteFieldExecutorTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private RemoteFieldExecutor executor;
+
+    @AfterEach
+    void closeExecutor() {
+        executor.close();
+    }
+
+    private GraphQL graphQL(RemoteFieldProperties properties) {
+        executor = new RemoteFieldExecutor(properties, meterRegistry);
+        // item 3 never answers in time, all the others take 200ms
+        DataFetcher<Object> remote = env -> executor.fetch(env, () -> {
+            int id = env.<Map<String, Integer>>getSource().get("id");
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(id == 3 ? 5000 : 200);
+                return "remote " + id;
+            }
+            finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        var typeDefinitions = new SchemaParser().parse("""
+                type Query { items(count: Int!): [Item!]! }
+                type Item { id: Int!, remote: String }
+                """);
+        var wiring = RuntimeWiring.newRuntimeWiring()
+                .type("Query", type -> type.dataFetcher("items", env -> IntStream.range(0, env.<Integer>getArgument("count"))
+                        .mapToObj(id -> Map.of("id", id))
+                        .toList()))
+                .type("Item", type -> type.dataFetcher("remote", remote))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(typeDefinitions, wiring);
+        return GraphQL.newGraphQL(schema)
+                .defaultDataFetcherExceptionHandler(DataFetcherExceptionResolver.createExceptionHandler(
+                        List.of(new RemoteFieldExceptionResolver())))
+                .build();
+    }
+
+    @Test
+    void shouldRunCallsConcurrentlyAndFailOnlyTheFieldThatTimedOut() {
+        var graphQL = graphQL(new RemoteFieldProperties(Duration.ofSeconds(5),
+                Map.of("Item.remote", Duration.ofSeconds(1)), 100));
+
+        long start = System.nanoTime();
+        ExecutionResult result = graphQL.execute("{ items(count: 50) { id remote } }");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // 50 calls of 200ms each, bounded by the one that timed out
+        assertThat(elapsed).isLessThan(Duration.ofMillis(2500));
+        List<Map<String, Object>> items = result.<Map<String, List<Map<String, Object>>>>getData().get("items");
+        assertThat(items).hasSize(50);
+        assertThat(items.get(2).get("remote")).isEqualTo("remote 2");
+        assertThat(items.get(3).get("remote")).isNull();
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getErrorType()).isEqualTo(RemoteFieldExceptionResolver.TIMEOUT);
+            assertThat(error.getPath()).containsExactly("items", 3, "remote");
+            assertThat(error.getMessage()).isEqualTo("Item.remote did not respond within 1000 ms");
+        });
+        assertThat(meterRegistry.get("graphql.remote-field.timeouts").tag("field", "Item.remote").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldBoundConcurrentCallsToTheDownstream() {
+        var graphQL = graphQL(new RemoteFieldProperties(Duration.ofSeconds(5), Map.of(), 2));
+
+        ExecutionResult result = graphQL.execute("{ items(count: 3) { remote } }");
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+}
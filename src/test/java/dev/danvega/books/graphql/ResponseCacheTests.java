@@ -0,0 +1,136 @@
+package dev.danvega.books.graphql;
+
+import dev.danvega.books.book.Book;
+import dev.danvega.books.book.BookRepository;
+import dev.danvega.books.review.LeaderboardReconciledEvent;
+import dev.danvega.books.review.Review;
+import dev.danvega.books.review.ReviewAddedEvent;
+import dev.danvega.books.review.ReviewRepository;
+import dev.danvega.books.review.ReviewsAddedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "books.graphql.response-cache.enabled=true")
+@AutoConfigureHttpGraphQlTester
+class ResponseCacheTests {
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    private Long addedBookId;
+    private Long addedReviewId;
+
+    @AfterEach
+    void removeAddedBook() {
+        if (addedBookId != null) {
+            bookRepository.deleteById(addedBookId);
+        }
+        if (addedReviewId != null) {
+            reviewRepository.deleteById(addedReviewId);
+        }
+        responseCache.getCache().invalidateAll();
+    }
+
+    @Test
+    void shouldEvictOnlyEntriesAffectedByAddBook() {
+        var books = "query { books { title author { name } } }";
+        var authors = "query { authors { id name } }";
+
+        graphQlTester.document(books).execute().path("books").entityList(Book.class).hasSize(4);
+        graphQlTester.document(authors).execute().path("authors").entityList(Object.class).hasSize(3);
+        long hits = responseCache.getCache().stats().hitCount();
+
+        // formatting doesn't matter, the document is normalized before it's used as a key
+        graphQlTester.document("query {\n  books {\n    title\n    author { name }\n  }\n}").execute()
+                .path("books").entityList(Book.class).hasSize(4);
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 1);
+
+        addedBookId = graphQlTester.document("""
+                    mutation { addBook(bookInput: {title: "Cached Spring", authorId: 1}) { id } }
+                """)
+                .execute()
+                .path("addBook.id").entity(Long.class).get();
+
+        graphQlTester.document(books).execute().path("books").entityList(Book.class).hasSize(5);
+        graphQlTester.document(authors).execute().path("authors").entityList(Object.class).hasSize(3);
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    void shouldEvictTheRemoteBooksOfTheAuthorOfAnAddedBook() {
+        var remoteBooks = "query { authors { id booksWithDelay { title } } }";
+        graphQlTester.document(remoteBooks).execute();
+        long hits = responseCache.getCache().stats().hitCount();
+
+        addedBookId = graphQlTester.document("""
+                    mutation { addBook(bookInput: {title: "Cached Remote Spring", authorId: 1}) { id } }
+                """)
+                .execute()
+                .path("addBook.id").entity(Long.class).get();
+
+        graphQlTester.document(remoteBooks).execute()
+                .path("authors[?(@.id == '1')].booksWithDelay[*].title").entityList(String.class)
+                .contains("Cached Remote Spring");
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits);
+    }
+
+    @Test
+    void shouldEvictRankingsWhenAReviewIsAddedOrTheLeaderboardIsCorrected() {
+        var rankings = "query { topRatedBooks { rank reviewCount } mostReviewedBooks { rank reviewCount } }";
+        graphQlTester.document(rankings).execute();
+        long hits = responseCache.getCache().stats().hitCount();
+        graphQlTester.document(rankings).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 1);
+
+        addedReviewId = graphQlTester.document("""
+                    mutation { addReview(reviewInput: {bookId: 1, rating: 5, reviewerName: "Cached"}) { id } }
+                """)
+                .execute()
+                .path("addReview.id").entity(Long.class).get();
+        graphQlTester.document(rankings).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 1);
+
+        // cached again, until a reconciliation corrects the rankings
+        graphQlTester.document(rankings).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 2);
+        responseCache.onLeaderboardReconciled(new LeaderboardReconciledEvent(1));
+        graphQlTester.document(rankings).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    void shouldEvictReviewsRankingsAndTheirBooksForABatchOfReviews() {
+        var affected = "query { reviews(limit: 1) { id } topRatedBooks { rank } book(id: 1) { averageRating } }";
+        var unaffected = "query { book(id: 2) { averageRating } }";
+        graphQlTester.document(affected).execute();
+        graphQlTester.document(unaffected).execute();
+        long hits = responseCache.getCache().stats().hitCount();
+
+        var review = new Review();
+        review.setBook(bookRepository.getReferenceById(1L));
+        review.setRating(4);
+        responseCache.onReviewsAdded(new ReviewsAddedEvent(List.of(new ReviewAddedEvent(review))));
+
+        graphQlTester.document(affected).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits);
+        graphQlTester.document(unaffected).execute();
+        assertThat(responseCache.getCache().stats().hitCount()).isEqualTo(hits + 1);
+    }
+}
@@ -0,0 +1,55 @@
+package dev.danvega.books.graphql;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "books.graphql.slow-operations.threshold=0ms",
+        "management.endpoints.web.exposure.include=slowoperations"
+})
+@AutoConfigureMockMvc
+class SlowOperationsEndpointTests {
+
+    @Autowired
+    private ExecutionGraphQlService graphQlService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldCaptureFieldBreakdownWithRedactedVariables() throws Exception {
+        mockMvc.perform(delete("/actuator/slowoperations")).andExpect(status().isNoContent());
+        var document = """
+                query bookWithReviews($id: Int!, $orderBy: ReviewOrder) {
+                    book(id: $id) { title reviews(first: 5, orderBy: $orderBy) { rating } }
+                }""";
+        graphQlService.execute(new DefaultExecutionGraphQlRequest(document, "bookWithReviews",
+                Map.of("id", 1, "orderBy", "NEWEST"), null, "1", null)).block();
+
+        mockMvc.perform(get("/actuator/slowoperations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].operationName").value("bookWithReviews"))
+                .andExpect(jsonPath("$[0].variables.id").value(1))
+                .andExpect(jsonPath("$[0].variables.orderBy").value("[redacted]"))
+                .andExpect(jsonPath("$[0].document").value(containsString("reviews(first: 0, orderBy: $orderBy)")))
+                .andExpect(jsonPath("$[0].cost").value(6))
+                .andExpect(jsonPath("$[0].statements").value(greaterThan(0)))
+                .andExpect(jsonPath("$[0].fields[?(@.field == 'Query.book')].statements").value(1))
+                .andExpect(jsonPath("$[0].fields[?(@.field == 'Review.rating')].fetches").exists());
+    }
+}
@@ -0,0 +1,112 @@
+package dev.danvega.books.importer;
+
+import dev.danvega.books.book.BookAddedEvent;
+import dev.danvega.books.book.BooksAddedEvent;
+import dev.danvega.books.review.ReviewAddedEvent;
+import dev.danvega.books.review.ReviewsAddedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "books.import.batch-size=2")
+@RecordApplicationEvents
+class CatalogImporterTests {
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private CatalogImporter importer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void removeImportedRows() {
+        jdbcTemplate.update("DELETE FROM review WHERE book_id IN (SELECT id FROM book WHERE title LIKE 'Imported %')");
+        jdbcTemplate.update("DELETE FROM book WHERE title LIKE 'Imported %'");
+        jdbcTemplate.update("DELETE FROM author WHERE name LIKE 'Imported %'");
+    }
+
+    @Test
+    void shouldImportBooksWithReviewsAndDedupeAuthors() throws Exception {
+        Path file = directory.resolve("catalog.ndjson");
+        Files.writeString(file, """
+                {"title": "Imported One", "author": "Josh Long", "reviews": [{"rating": 5, "reviewerName": "Ann", "createdAt": "2020-01-02T03:04:05"}]}
+                {"title": "Imported Two", "author": "Imported Author"}
+                not json
+                {"title": "Imported Three", "author": "Imported Author", "reviews": [{"rating": 3, "reviewerName": "Bob"}]}
+                """);
+
+        ImportReport report = importer.importFile(file);
+
+        assertThat(report.books()).isEqualTo(3);
+        assertThat(report.reviews()).isEqualTo(2);
+        assertThat(report.authorsCreated()).isEqualTo(1);
+        assertThat(report.skippedLines()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT a.name FROM book b JOIN author a ON a.id = b.author_id WHERE b.title = 'Imported One'
+                """, String.class)).isEqualTo("Josh Long");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM author WHERE name = 'Imported Author'", Long.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT r.created_at::text FROM review r JOIN book b ON b.id = r.book_id WHERE b.title = 'Imported One'
+                """, String.class)).isEqualTo("2020-01-02 03:04:05");
+        assertThat(ImportCheckpoint.pathFor(file)).doesNotExist();
+        // one event per committed batch of two
+        assertThat(events.stream(BookAddedEvent.class)).isEmpty();
+        assertThat(events.stream(BooksAddedEvent.class).map(event -> event.books().size())).containsExactly(2, 1);
+        assertThat(events.stream(ReviewAddedEvent.class)).isEmpty();
+        assertThat(events.stream(ReviewsAddedEvent.class)
+                .map(event -> event.reviews().stream().map(added -> added.review().getReviewerName()).toList()))
+                .containsExactly(List.of("Ann"), List.of("Bob"));
+    }
+
+    @Test
+    void shouldSkipReviewsWithAMissingOrOutOfRangeRating() throws Exception {
+        Path file = directory.resolve("ratings.ndjson");
+        Files.writeString(file, """
+                {"title": "Imported Rated", "author": "Imported Critic", "reviews": [{"rating": 4, "reviewerName": "Ann"}, {"rating": 9, "reviewerName": "Bob"}, {"reviewerName": "Cy"}]}
+                {"title": "Imported Unrated", "author": "Imported Critic", "reviews": [{"rating": 0, "reviewerName": "Di"}]}
+                """);
+
+        ImportReport report = importer.importFile(file);
+
+        assertThat(report.books()).isEqualTo(2);
+        assertThat(report.reviews()).isEqualTo(1);
+        assertThat(report.skippedReviews()).isEqualTo(3);
+        assertThat(report.skippedLines()).isZero();
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT r.rating FROM review r JOIN book b ON b.id = r.book_id WHERE b.title LIKE 'Imported %'
+                """, Integer.class)).containsExactly(4);
+    }
+
+    @Test
+    void shouldResumeCsvImportFromCheckpoint() throws Exception {
+        Path file = directory.resolve("catalog.csv");
+        String done = "title,author\nImported A,Imported Writer\n";
+        Files.writeString(file, done + "\"Imported B, Second Edition\",Imported Writer\nImported C,Mark Heckler\n");
+        new ImportCheckpoint(done.getBytes(StandardCharsets.UTF_8).length, 1, 0, 1, 0, 0).save(file);
+
+        ImportReport report = importer.importFile(file);
+
+        assertThat(report.books()).isEqualTo(3);
+        assertThat(report.resumedFromOffset()).isEqualTo(done.length());
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM book WHERE title LIKE 'Imported %' ORDER BY id", String.class))
+                .containsExactly("Imported B, Second Edition", "Imported C");
+    }
+}
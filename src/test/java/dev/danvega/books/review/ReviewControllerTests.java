@@ -1,24 +1,48 @@
 package dev.danvega.books.review;
 
+import dev.danvega.books.SqlStatements;
+import dev.danvega.books.book.BookRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.graphql.test.tester.GraphQlTester;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 @SpringBootTest
 @AutoConfigureGraphQlTester
 @Transactional
+@RecordApplicationEvents
 class ReviewControllerTests {
 
     @Autowired
     private GraphQlTester graphQlTester;
 
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReviewLeaderboard leaderboard;
+
+    @Autowired
+    private ApplicationEvents events;
+
     @Test
     void shouldFilterReviewsByRating() {
         graphQlTester.document("""
@@ -39,4 +63,272 @@ class ReviewControllerTests {
                         assertThat(reviews).allMatch(r -> r.getRating() == 5)
                 );
     }
+
+    @Test
+    void shouldBatchLoadBooksAndAuthorsForReviews() {
+        graphQlTester.document("""
+            query($filter: ReviewFilter!) {
+                reviews(filter: $filter) {
+                    rating
+                    book {
+                        title
+                        author {
+                            name
+                        }
+                    }
+                }
+            }
+        """)
+                .variable("filter", Map.of("rating", 5))
+                .execute()
+                .path("reviews[*].book.author.name")
+                .entityList(String.class)
+                .hasSize(8)
+                .satisfies(names ->
+                        assertThat(names).allMatch(name -> name != null && !name.isBlank())
+                );
+    }
+
+    @Test
+    void shouldLimitReviewsPerBook() {
+        graphQlTester.document("""
+            query {
+                books {
+                    title
+                    reviews(first: 1, orderBy: HIGHEST_RATED) {
+                        rating
+                    }
+                }
+            }
+        """)
+                .execute()
+                .path("books[*].reviews")
+                .entityList(List.class)
+                .hasSize(4)
+                .satisfies(reviews ->
+                        assertThat(reviews).allMatch(r -> r.size() == 1)
+                );
+    }
+
+    @Test
+    void shouldBatchLoadBooksOfReviewsWithinBudget() {
+        var document = """
+            query {
+                reviews {
+                    rating
+                    book {
+                        title
+                    }
+                }
+            }
+        """;
+
+        SqlStatements.during(() -> graphQlTester.document(document).execute().path("reviews").entityList(Object.class).hasSizeGreaterThan(4))
+                .assertAtMost(2);
+    }
+
+    @Test
+    void shouldKeepRatingSummariesInStepWithReviews() {
+        var review = new Review();
+        review.setBook(bookRepository.getReferenceById(4L));
+        review.setRating(1);
+        review.setReviewerName("Tough Critic");
+        review.setVerified(false);
+        reviewRepository.saveAndFlush(review);
+
+        Map<Long, List<Integer>> ratingsByBook = reviewRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Review::bookId, Collectors.mapping(Review::getRating, Collectors.toList())));
+        var document = """
+            query {
+                books {
+                    id
+                    averageRating
+                    reviewCount
+                    ratingHistogram {
+                        rating
+                        count
+                    }
+                }
+            }
+        """;
+
+        SqlStatements.during(() -> {
+            var response = graphQlTester.document(document).execute();
+            for (int i = 0; i < 4; i++) {
+                Long bookId = response.path("books[%d].id".formatted(i)).entity(Long.class).get();
+                List<Integer> ratings = ratingsByBook.getOrDefault(bookId, List.of());
+                response.path("books[%d].reviewCount".formatted(i)).entity(Integer.class).isEqualTo(ratings.size());
+                response.path("books[%d].averageRating".formatted(i)).entity(Double.class)
+                        .isEqualTo(ratings.stream().mapToInt(Integer::intValue).average().orElseThrow());
+                response.path("books[%d].ratingHistogram[0].count".formatted(i)).entity(Long.class)
+                        .isEqualTo(ratings.stream().filter(rating -> rating == 1).count());
+            }
+        }).assertAtMost(2);
+    }
+
+    @Test
+    void shouldFilterReviewsByBookMinimumRatingAndDate() {
+        LocalDateTime since = LocalDateTime.now().minusDays(20);
+        List<Long> expected = reviewRepository.findAll().stream()
+                .filter(r -> r.bookId() == 1L && r.getRating() >= 4 && !r.getCreatedAt().isBefore(since))
+                .sorted(Comparator.comparing(Review::getRating).thenComparing(Review::getCreatedAt).thenComparing(Review::getId).reversed())
+                .map(Review::getId)
+                .toList();
+
+        graphQlTester.document("""
+            query($filter: ReviewFilter!) {
+                reviews(filter: $filter, orderBy: HIGHEST_RATED) {
+                    id
+                }
+            }
+        """)
+                .variable("filter", Map.of("bookId", 1, "minRating", 4, "since", since.toString()))
+                .execute()
+                .path("reviews[*].id")
+                .entityList(Long.class)
+                .isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRejectAMalformedDateInTheFilter() {
+        graphQlTester.document("query { reviews(filter: { since: \"last week\" }) { id } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.BAD_REQUEST
+                        && error.getMessage().startsWith("'last week' is not an ISO-8601 local date-time"))
+                .verify();
+    }
+
+    @Test
+    void shouldPageThroughFilteredReviewsWithKeysetCursors() {
+        List<Long> expected = reviewRepository.findAll().stream()
+                .filter(r -> r.getRating() >= 4)
+                .sorted(Comparator.comparing(Review::getCreatedAt).thenComparing(Review::getId).reversed())
+                .map(Review::getId)
+                .toList();
+        var document = """
+            query($after: String) {
+                reviewsConnection(filter: { minRating: 4 }, orderBy: NEWEST, first: 3, after: $after) {
+                    edges {
+                        node {
+                            id
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        endCursor
+                    }
+                }
+            }
+        """;
+
+        List<Long> paged = new ArrayList<>();
+        Map<String, Object> variables = new HashMap<>();
+        boolean hasNextPage = true;
+        while (hasNextPage) {
+            var response = graphQlTester.document(document).variables(variables).execute();
+            paged.addAll(response.path("reviewsConnection.edges[*].node.id").entityList(Long.class).get());
+            hasNextPage = response.path("reviewsConnection.pageInfo.hasNextPage").entity(Boolean.class).get();
+            variables.put("after", response.path("reviewsConnection.pageInfo.endCursor").entity(String.class).get());
+        }
+
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldGetReviewById() {
+        graphQlTester.document("query { review(id: 1) { id reviewerName } }")
+                .execute()
+                .path("review.reviewerName")
+                .entity(String.class)
+                .isEqualTo("Sarah Chen");
+    }
+
+    @Test
+    void shouldRankBooksFromMemory() {
+        Map<Long, List<Integer>> ratingsByBook = reviewRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Review::bookId, Collectors.mapping(Review::getRating, Collectors.toList())));
+        Comparator<Long> byAverage = Comparator.comparingDouble(
+                bookId -> ratingsByBook.get(bookId).stream().mapToInt(Integer::intValue).average().orElseThrow());
+        Comparator<Long> byCount = Comparator.comparingInt(bookId -> ratingsByBook.get(bookId).size());
+        List<Long> topRated = ratingsByBook.keySet().stream()
+                .sorted(byAverage.thenComparing(byCount).reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(3)
+                .toList();
+        List<Long> mostReviewed = ratingsByBook.keySet().stream()
+                .sorted(byCount.thenComparing(byAverage).reversed().thenComparing(Comparator.naturalOrder()))
+                .limit(2)
+                .toList();
+
+        SqlStatements.during(() -> {
+            var response = graphQlTester.document("""
+                query {
+                    topRatedBooks(limit: 3) {
+                        rank
+                        averageRating
+                        book {
+                            id
+                            title
+                        }
+                    }
+                    mostReviewedBooks(limit: 2) {
+                        reviewCount
+                        book {
+                            id
+                        }
+                    }
+                }
+            """).execute();
+            response.path("topRatedBooks[*].book.id").entityList(Long.class).isEqualTo(topRated);
+            response.path("topRatedBooks[*].rank").entityList(Integer.class).containsExactly(1, 2, 3);
+            response.path("mostReviewedBooks[*].book.id").entityList(Long.class).isEqualTo(mostReviewed);
+            response.path("mostReviewedBooks[0].reviewCount").entity(Integer.class)
+                    .isEqualTo(ratingsByBook.get(mostReviewed.get(0)).size());
+        }).assertAtMost(1);
+    }
+
+    @Test
+    void shouldApplyNewReviewsToTheLeaderboardAndReconcileDrift() {
+        List<RankedBook> before = leaderboard.mostReviewed(10);
+        RankedBook last = before.get(before.size() - 1);
+
+        // an event for a review that was never saved leaves the leaderboard out of step with the database
+        for (int i = 0; i < 10; i++) {
+            var review = new Review();
+            review.setBook(bookRepository.getReferenceById(last.bookId()));
+            review.setRating(5);
+            leaderboard.onReviewAdded(new ReviewAddedEvent(review));
+        }
+        assertThat(leaderboard.mostReviewed(1).get(0).bookId()).isEqualTo(last.bookId());
+        assertThat(leaderboard.topRated(1, 1).get(0).bookId()).isEqualTo(last.bookId());
+
+        leaderboard.reconcile();
+
+        assertThat(leaderboard.mostReviewed(10)).isEqualTo(before);
+        assertThat(events.stream(LeaderboardReconciledEvent.class).map(LeaderboardReconciledEvent::corrected).toList())
+                .containsExactly(1);
+    }
+
+    @Test
+    void shouldApplyABatchOfReviewsToTheLeaderboard() {
+        List<RankedBook> before = leaderboard.mostReviewed(10);
+        RankedBook last = before.get(before.size() - 1);
+
+        List<ReviewAddedEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            var review = new Review();
+            review.setBook(bookRepository.getReferenceById(last.bookId()));
+            review.setRating(i % 2 == 0 ? 5 : 1);
+            batch.add(new ReviewAddedEvent(review));
+        }
+        leaderboard.onReviewsAdded(new ReviewsAddedEvent(batch));
+
+        RankedBook moved = leaderboard.mostReviewed(1).get(0);
+        assertThat(moved.bookId()).isEqualTo(last.bookId());
+        assertThat(moved.reviewCount()).isEqualTo(last.reviewCount() + 10);
+
+        // the reviews were never saved, put the leaderboard back in step with the database
+        leaderboard.reconcile();
+        assertThat(leaderboard.mostReviewed(10)).isEqualTo(before);
+    }
 }
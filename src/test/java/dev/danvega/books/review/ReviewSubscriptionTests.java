@@ -0,0 +1,132 @@
+package dev.danvega.books.review;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.graphql.test.tester.WebSocketGraphQlTester;
+import org.springframework.web.reactive.socket.client.StandardWebSocketClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.BufferOverflowStrategy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.graphql.websocket.path=/graphql")
+class ReviewSubscriptionTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> addedReviewIds = new ArrayList<>();
+
+    @AfterEach
+    void deleteAddedReviews() {
+        reviewRepository.deleteAllById(addedReviewIds);
+    }
+
+    @Test
+    void shouldPushReviewsOfTheSubscribedBookOverWebSocket() throws Exception {
+        var tester = WebSocketGraphQlTester.builder(URI.create("ws://localhost:" + port + "/graphql"),
+                new StandardWebSocketClient()).build();
+        var added = tester.document("""
+                    subscription($bookId: Int) {
+                        reviewAdded(bookId: $bookId) {
+                            id
+                            rating
+                            book {
+                                title
+                            }
+                        }
+                    }
+                """)
+                .variable("bookId", 2)
+                .executeSubscription()
+                .toFlux()
+                .next()
+                .toFuture();
+        // the subscription starts asynchronously, reviews added before it's active aren't pushed
+        awaitGauge("graphql.subscriptions.active", 1);
+        assertThat(meterRegistry.get("graphql.websocket.connections").gauge().value()).isEqualTo(1);
+
+        for (long bookId : List.of(1L, 2L)) {
+            String id = tester.document("""
+                        mutation($input: ReviewInput!) {
+                            addReview(reviewInput: $input) { id }
+                        }
+                    """)
+                    .variable("input", Map.of("bookId", bookId, "rating", 3, "reviewerName", "Subscriber"))
+                    .execute()
+                    .path("addReview.id").entity(String.class).get();
+            addedReviewIds.add(Long.valueOf(id));
+        }
+
+        var response = added.get(5, TimeUnit.SECONDS);
+        response.path("reviewAdded.id").entity(Long.class).isEqualTo(addedReviewIds.get(1));
+        response.path("reviewAdded.book.title").entity(String.class).isEqualTo("Spring Boot: Up and Running");
+        tester.stop().block(Duration.ofSeconds(5));
+    }
+
+    private void awaitGauge(String name, double value) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(name).gauge().value() < value && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(meterRegistry.get(name).gauge().value()).isEqualTo(value);
+    }
+
+    @Test
+    void shouldDropOldestReviewsOnlyForSlowSubscribers() {
+        var meters = new SimpleMeterRegistry();
+        var publisher = new ReviewAddedPublisher(new ReviewSubscriptionProperties(2, BufferOverflowStrategy.DROP_OLDEST), meters);
+        List<Long> fast = new CopyOnWriteArrayList<>();
+        publisher.reviewsAdded(null).subscribe(review -> fast.add(review.getId()));
+        var slow = new SlowSubscriber();
+        publisher.reviewsAdded(null).subscribe(slow);
+
+        for (long id = 1; id <= 5; id++) {
+            var review = new Review();
+            review.setId(id);
+            publisher.onReviewAdded(new ReviewAddedEvent(review));
+        }
+        slow.request(10);
+
+        assertThat(fast).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(slow.received).containsExactly(4L, 5L);
+        assertThat(meters.get("graphql.subscriptions.dropped").counter().count()).isEqualTo(3);
+        assertThat(meters.get("graphql.subscriptions.active").gauge().value()).isEqualTo(2);
+    }
+
+    private static class SlowSubscriber extends BaseSubscriber<Review> {
+
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // doesn't request anything until told to
+        }
+
+        @Override
+        protected void hookOnNext(Review review) {
+            received.add(review.getId());
+        }
+    }
+}
@@ -37,4 +37,53 @@ class SearchControllerTests {
                 .entityList(Object.class)
                 .hasSize(3);
     }
+
+    @Test
+    void shouldMatchWordPrefixesAndRespectLimit() {
+        var document = """
+            query($text: String!, $limit: Int) {
+                search(text: $text, limit: $limit) {
+                    ... on Book {
+                        title
+                    }
+                    ... on Author {
+                        name
+                    }
+                }
+            }
+        """;
+
+        graphQlTester.document(document)
+                .variable("text", "tur")
+                .execute()
+                .path("search[0].name")
+                .entity(String.class)
+                .isEqualTo("Greg Turnquist");
+
+        graphQlTester.document(document)
+                .variable("text", "spring boot")
+                .variable("limit", 2)
+                .execute()
+                .path("search")
+                .entityList(Object.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void shouldSuggestByWordPrefix() {
+        graphQlTester.document("""
+            query($prefix: String!) {
+                suggest(prefix: $prefix, limit: 5) {
+                    id
+                    text
+                    type
+                }
+            }
+        """)
+                .variable("prefix", "spr")
+                .execute()
+                .path("suggest[*].text")
+                .entityList(String.class)
+                .containsExactly("Learning Spring Boot 3.0", "Spring Boot in Action", "Spring Boot: Up and Running");
+    }
 }